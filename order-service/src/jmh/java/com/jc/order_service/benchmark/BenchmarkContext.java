@@ -0,0 +1,82 @@
+package com.jc.order_service.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jc.order_service.OrderServiceApplication;
+import com.jc.order_service.client.ProductClient;
+import com.jc.order_service.client.UserClient;
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Boots order-service on the H2 test profile with an in-memory feign.Client in place of the load-balanced one, so
+// benchmarks run the real Feign, resilience4j and JPA stack without user-service, product-service or Eureka.
+final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    static ConfigurableApplicationContext start(Map<String, String> properties) {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.profiles.active=test",
+                "--eureka.client.enabled=false",
+                "--spring.cloud.discovery.enabled=false",
+                "--logging.level.root=WARN",
+                "--resilience4j.ratelimiter.instances.userServiceRL.limitForPeriod=100000000",
+                "--resilience4j.ratelimiter.instances.productServiceRL.limitForPeriod=100000000",
+                "--order.outbox.poll-interval-ms=3600000",
+                // The stub answers in microseconds, where the latency-driven limiter and hedger would only react to
+                // JIT and GC noise; pin the limit and turn hedging off so they stay out of the numbers.
+                "--order.limiter.min-limit=200",
+                "--order.limiter.initial-limit=200",
+                "--order.hedge.enabled=false"));
+        properties.forEach((key, value) -> args.add("--" + key + "=" + value));
+        return new SpringApplicationBuilder(OrderServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .initializers(context -> ((GenericApplicationContext) context)
+                        .registerBean("stubFeignClient", Client.class, () -> new StubClient(new ObjectMapper())))
+                .run(args.toArray(String[]::new));
+    }
+
+    static String text(int length) {
+        return "x".repeat(length);
+    }
+
+    // Answers user and product lookups with fixed JSON bodies and accepts every stock reservation and decrement.
+    static final class StubClient implements Client {
+
+        private final ObjectMapper objectMapper;
+
+        StubClient(ObjectMapper objectMapper) {
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        public Response execute(Request request, Request.Options options) throws IOException {
+            String path = URI.create(request.url()).getPath();
+            String[] segments = path.split("/");
+            Object body = null;
+            if (path.startsWith("/users/")) {
+                body = new UserClient.UserResponse(Long.valueOf(segments[2]), "User " + segments[2], "user" + segments[2] + "@example.com");
+            } else if (path.startsWith("/products/") && segments.length == 3) {
+                body = new ProductClient.ProductResponse(Long.valueOf(segments[2]), "Product " + segments[2], 10.0, "benchmark product", Integer.MAX_VALUE);
+            }
+            return Response.builder()
+                    .status(200)
+                    .reason("OK")
+                    .request(request)
+                    .headers(Map.of("Content-Type", List.of("application/json")))
+                    .body(body == null ? new byte[0] : objectMapper.writeValueAsBytes(body))
+                    .build();
+        }
+    }
+}
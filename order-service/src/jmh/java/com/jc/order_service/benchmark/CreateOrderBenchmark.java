@@ -0,0 +1,89 @@
+package com.jc.order_service.benchmark;
+
+import com.jc.order_service.model.Order;
+import com.jc.order_service.service.OrderService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// OrderServiceImpl.createOrder end to end: caches, resilience4j aspects, Feign against an in-memory client, and the
+// order, outbox and summary writes on H2. Each invocation places `concurrency` orders at once.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CreateOrderBenchmark {
+
+    @Param({"1", "16"})
+    private int concurrency;
+
+    @Param({"true", "false"})
+    private boolean cached;
+
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+    private JdbcTemplate jdbcTemplate;
+    private ExecutorService callers;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(Map.of(
+                "order.cache.user.enabled", String.valueOf(cached),
+                "order.cache.product.enabled", String.valueOf(cached)));
+        orderService = context.getBean(OrderService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        callers = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    // Keeps table and index size the same from one iteration to the next.
+    @TearDown(Level.Iteration)
+    public void truncate() {
+        jdbcTemplate.execute("delete from stock_outbox_orders");
+        jdbcTemplate.execute("delete from stock_outbox");
+        jdbcTemplate.execute("delete from orders");
+        jdbcTemplate.execute("delete from user_order_summaries");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        callers.close();
+        context.close();
+    }
+
+    @Benchmark
+    public void createOrder(Blackhole blackhole) throws ExecutionException, InterruptedException {
+        if (concurrency == 1) {
+            blackhole.consume(orderService.createOrder(newOrder()));
+            return;
+        }
+        List<Future<Order>> futures = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            futures.add(callers.submit(() -> orderService.createOrder(newOrder())));
+        }
+        for (Future<Order> future : futures) {
+            blackhole.consume(future.get());
+        }
+    }
+
+    private static Order newOrder() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return Order.builder()
+                .userId(random.nextLong(1, 1_000))
+                .productId(random.nextLong(1, 100))
+                .quantity(random.nextInt(1, 5))
+                .build();
+    }
+}
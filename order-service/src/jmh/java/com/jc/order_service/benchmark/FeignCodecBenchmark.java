@@ -0,0 +1,90 @@
+package com.jc.order_service.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jc.order_service.client.ProductClient;
+import com.jc.order_service.client.UserClient;
+import feign.Request;
+import feign.RequestTemplate;
+import feign.Response;
+import feign.codec.Decoder;
+import feign.codec.Encoder;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.cloud.openfeign.FeignClientFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// The encoder and decoder the product-service and user-service Feign clients are actually built with, on bodies
+// whose text fields are `textLength` characters long.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FeignCodecBenchmark {
+
+    @Param({"16", "1024", "16384"})
+    private int textLength;
+
+    private ConfigurableApplicationContext context;
+    private Decoder productDecoder;
+    private Encoder productEncoder;
+    private Decoder userDecoder;
+    private ProductClient.ProductResponse product;
+    private byte[] productJson;
+    private byte[] userJson;
+    private Request request;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        context = BenchmarkContext.start(Map.of());
+        FeignClientFactory feignClientFactory = context.getBean(FeignClientFactory.class);
+        productDecoder = feignClientFactory.getInstance("product-service", Decoder.class);
+        productEncoder = feignClientFactory.getInstance("product-service", Encoder.class);
+        userDecoder = feignClientFactory.getInstance("user-service", Decoder.class);
+        ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+        String text = BenchmarkContext.text(textLength);
+        product = new ProductClient.ProductResponse(1L, text, 10.0, text, 100);
+        productJson = objectMapper.writeValueAsBytes(product);
+        userJson = objectMapper.writeValueAsBytes(new UserClient.UserResponse(1L, text, text + "@example.com"));
+        request = Request.create(Request.HttpMethod.GET, "http://product-service/products/1", new HashMap<>(), null, StandardCharsets.UTF_8, null);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object decodeProduct() throws IOException {
+        return productDecoder.decode(response(productJson), ProductClient.ProductResponse.class);
+    }
+
+    @Benchmark
+    public Object decodeUser() throws IOException {
+        return userDecoder.decode(response(userJson), UserClient.UserResponse.class);
+    }
+
+    @Benchmark
+    public RequestTemplate encodeProduct() {
+        RequestTemplate template = new RequestTemplate();
+        productEncoder.encode(product, ProductClient.ProductResponse.class, template);
+        return template;
+    }
+
+    private Response response(byte[] body) {
+        return Response.builder()
+                .status(200)
+                .reason("OK")
+                .request(request)
+                .headers(Map.of("Content-Type", List.of("application/json")))
+                .body(body)
+                .build();
+    }
+}
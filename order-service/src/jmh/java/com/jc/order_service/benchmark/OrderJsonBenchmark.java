@@ -0,0 +1,55 @@
+package com.jc.order_service.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jc.order_service.entity.OrderStatus;
+import com.jc.order_service.model.Order;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+// Jackson serialization of Order with the ObjectMapper Spring Boot configures for the controllers, for a single
+// order and for pages of `pageSize` orders.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderJsonBenchmark {
+
+    @Param({"1", "50", "500"})
+    private int pageSize;
+
+    private ObjectMapper objectMapper;
+    private List<Order> page;
+    private byte[] pageJson;
+
+    @Setup(Level.Trial)
+    public void setUp() throws JsonProcessingException {
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(JacksonAutoConfiguration.class)) {
+            objectMapper = context.getBean(ObjectMapper.class);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        page = LongStream.rangeClosed(1, pageSize)
+                .mapToObj(id -> new Order(id, id % 100, id % 10, 2, OrderStatus.CONFIRMED, now, now))
+                .toList();
+        pageJson = objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public Order[] deserializePage() throws IOException {
+        return objectMapper.readValue(pageJson, Order[].class);
+    }
+}
@@ -0,0 +1,124 @@
+package com.jc.order_service.archive;
+
+import com.jc.order_service.entity.OrderStatus;
+import com.jc.order_service.repository.ArchivedOrderRepository;
+import com.jc.order_service.repository.OrderRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Moves terminal orders older than the configured age from orders to orders_archive. Each batch is copied and deleted
+// in one transaction and candidates are selected by status and age alone, so an interrupted run simply continues
+// with whatever is left on the next one. The pause between batches keeps lock time and IO away from live traffic, and a
+// run stops after max-run-time so it never holds a scheduler thread for long. Batches are locked with SKIP LOCKED, so
+// instances running at the same time archive different rows instead of colliding on the archive's primary key.
+@Component
+public class OrderArchiver {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderArchiver.class);
+    private static final List<OrderStatus> TERMINAL = Arrays.stream(OrderStatus.values()).filter(OrderStatus::isTerminal).toList();
+    private static final List<String> TERMINAL_NAMES = TERMINAL.stream().map(Enum::name).toList();
+
+    private final OrderRepository orderRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Duration minAge;
+    private final int batchSize;
+    private final Duration batchPause;
+    private final int maxBatchesPerRun;
+    private final Duration maxRunTime;
+    private final Counter moved;
+    private final Counter batches;
+    private final Timer batchTimer;
+    private final AtomicLong backlog = new AtomicLong();
+
+    public OrderArchiver(OrderRepository orderRepository,
+                         ArchivedOrderRepository archivedOrderRepository,
+                         TransactionTemplate transactionTemplate,
+                         MeterRegistry meterRegistry,
+                         @Value("${order.archive.enabled:false}") boolean enabled,
+                         @Value("${order.archive.min-age:90d}") Duration minAge,
+                         @Value("${order.archive.batch-size:500}") int batchSize,
+                         @Value("${order.archive.batch-pause:200ms}") Duration batchPause,
+                         @Value("${order.archive.max-batches-per-run:1000}") int maxBatchesPerRun,
+                         @Value("${order.archive.max-run-time:2m}") Duration maxRunTime) {
+        this.orderRepository = orderRepository;
+        this.archivedOrderRepository = archivedOrderRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.minAge = minAge;
+        this.batchSize = batchSize;
+        this.batchPause = batchPause;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.maxRunTime = maxRunTime;
+        this.moved = meterRegistry.counter("orders.archive.moved");
+        this.batches = meterRegistry.counter("orders.archive.batches");
+        this.batchTimer = meterRegistry.timer("orders.archive.batch.duration");
+        meterRegistry.gauge("orders.archive.backlog", backlog);
+    }
+
+    @Scheduled(fixedDelayString = "${order.archive.interval-ms:3600000}")
+    public void archiveScheduled() {
+        if (enabled) {
+            archive();
+        }
+    }
+
+    public long archive() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(minAge);
+        backlog.set(orderRepository.countToArchive(TERMINAL, cutoff));
+        long deadline = System.nanoTime() + maxRunTime.toNanos();
+        long total = 0;
+        for (int batch = 0; batch < maxBatchesPerRun && System.nanoTime() - deadline < 0; batch++) {
+            int count = batchTimer.record(() -> moveBatch(cutoff));
+            total += count;
+            backlog.set(Math.max(0, backlog.get() - count));
+            if (count < batchSize || !pause()) {
+                break;
+            }
+        }
+        if (total > 0) {
+            logger.info("Archived {} orders created before {}, {} left", total, cutoff, backlog.get());
+        }
+        return total;
+    }
+
+    private int moveBatch(LocalDateTime cutoff) {
+        Integer count = transactionTemplate.execute(tx -> {
+            List<Long> ids = orderRepository.lockIdsToArchive(TERMINAL_NAMES, cutoff, batchSize);
+            if (ids.isEmpty()) {
+                return 0;
+            }
+            archivedOrderRepository.copyFromOrders(ids, LocalDateTime.now());
+            return orderRepository.deleteAllByIdIn(ids);
+        });
+        if (count > 0) {
+            moved.increment(count);
+            batches.increment();
+        }
+        return count;
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(batchPause);
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.jc.order_service.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.jc.order_service.client.ProductClient;
+import com.jc.order_service.service.ProductService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+
+// Short-lived product snapshots for reads. Entries older than refresh-after are served as-is while a
+// background reload runs; a failed reload keeps the previous snapshot until it expires. Loads and reloads go through a
+// single-flight layer, also when the cache is disabled, so concurrent lookups of the same product share one call.
+@Component
+public class ProductCache {
+
+    private final ProductService productService;
+    private final boolean enabled;
+    private final LoadingCache<Long, ProductClient.ProductResponse> cache;
+    private final SingleFlight<Long, ProductClient.ProductResponse> inFlight;
+
+    public ProductCache(ProductService productService,
+                        MeterRegistry meterRegistry,
+                        @Qualifier("downstreamExecutor") ExecutorService downstreamExecutor,
+                        @Value("${order.cache.product.enabled:true}") boolean enabled,
+                        @Value("${order.cache.product.max-size:10000}") long maxSize,
+                        @Value("${order.cache.product.ttl:60s}") Duration ttl,
+                        @Value("${order.cache.product.refresh-after:45s}") Duration refreshAfter) {
+        this.productService = productService;
+        this.enabled = enabled;
+        this.inFlight = new SingleFlight<>("product", meterRegistry);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .refreshAfterWrite(refreshAfter)
+                .executor(downstreamExecutor)
+                .recordStats()
+                .build(this::fetch);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "productCache");
+    }
+
+    public ProductClient.ProductResponse getProduct(Long productId) {
+        if (!enabled) {
+            return fetch(productId);
+        }
+        ProductClient.ProductResponse product = cache.getIfPresent(productId);
+        if (product == null) {
+            product = fetch(productId);
+            if (product != null) {
+                cache.put(productId, product);
+            }
+        }
+        return product;
+    }
+
+    // Reactive lookups share entries and in-flight calls with getProduct; load is the reactive counterpart of
+    // ProductService. Background refreshes of entries stay on the blocking path.
+    public Mono<ProductClient.ProductResponse> getProduct(Long productId, Function<Long, Mono<ProductClient.ProductResponse>> load) {
+        if (!enabled) {
+            return inFlight.execute(productId, load.apply(productId));
+        }
+        ProductClient.ProductResponse cached = cache.getIfPresent(productId);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        return inFlight.execute(productId, load.apply(productId)).doOnNext(product -> cache.put(productId, product));
+    }
+
+    public void invalidate(Long productId) {
+        cache.invalidate(productId);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    private ProductClient.ProductResponse fetch(Long productId) {
+        return inFlight.execute(productId, () -> productService.getProduct(productId));
+    }
+}
@@ -0,0 +1,42 @@
+package com.jc.order_service.cache;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+@Component
+@Endpoint(id = "productcache")
+public class ProductCacheEndpoint {
+
+    private final ProductCache productCache;
+
+    public ProductCacheEndpoint(ProductCache productCache) {
+        this.productCache = productCache;
+    }
+
+    @ReadOperation
+    public Map<String, Object> stats() {
+        CacheStats stats = productCache.stats();
+        return Map.of(
+                "size", productCache.size(),
+                "hits", stats.hitCount(),
+                "misses", stats.missCount(),
+                "evictions", stats.evictionCount(),
+                "hitRate", stats.hitRate());
+    }
+
+    @DeleteOperation
+    public void invalidateAll() {
+        productCache.invalidateAll();
+    }
+
+    @DeleteOperation
+    public void invalidate(@Selector Long productId) {
+        productCache.invalidate(productId);
+    }
+}
@@ -0,0 +1,95 @@
+package com.jc.order_service.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+// Coalesces concurrent calls for the same key: the first caller runs the call on its own thread and every caller
+// arriving while it is in flight shares its result or exception. Nothing is retained once the call completes.
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Counter executed;
+    private final Counter coalesced;
+
+    public SingleFlight(String name, MeterRegistry meterRegistry) {
+        this.executed = Counter.builder("downstream.singleflight.calls").tag("name", name).tag("result", "executed")
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("downstream.singleflight.calls").tag("name", name).tag("result", "coalesced")
+                .register(meterRegistry);
+        Gauge.builder("downstream.singleflight.in.flight", inFlight, Map::size).tag("name", name).register(meterRegistry);
+    }
+
+    public V execute(K key, Supplier<V> call) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalesced.increment();
+            return await(existing);
+        }
+        executed.increment();
+        V value;
+        try {
+            value = call.get();
+        } catch (RuntimeException | Error ex) {
+            inFlight.remove(key, flight);
+            flight.completeExceptionally(ex);
+            throw ex;
+        }
+        // Removed before completing so callers arriving afterwards start a fresh call rather than reuse this result.
+        inFlight.remove(key, flight);
+        flight.complete(value);
+        return value;
+    }
+
+    // Reactive variant sharing the same flights, so blocking and reactive lookups of one key coalesce too. The call is
+    // subscribed on its own rather than through the first caller, so a caller that cancels does not leave the others
+    // without an answer.
+    public Mono<V> execute(K key, Mono<V> call) {
+        return Mono.defer(() -> {
+            CompletableFuture<V> flight = new CompletableFuture<>();
+            CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+            if (existing != null) {
+                coalesced.increment();
+                return Mono.fromFuture(existing, true);
+            }
+            executed.increment();
+            call.subscribe(
+                    value -> {
+                        inFlight.remove(key, flight);
+                        flight.complete(value);
+                    },
+                    ex -> {
+                        inFlight.remove(key, flight);
+                        flight.completeExceptionally(ex);
+                    },
+                    () -> {
+                        inFlight.remove(key, flight);
+                        flight.complete(null);
+                    });
+            return Mono.fromFuture(flight, true);
+        });
+    }
+
+    private V await(CompletableFuture<V> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (ex.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+}
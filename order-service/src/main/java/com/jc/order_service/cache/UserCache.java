@@ -0,0 +1,101 @@
+package com.jc.order_service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.jc.order_service.client.UserClient;
+import com.jc.order_service.exception.UserNotFoundException;
+import com.jc.order_service.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+// Near-cache in front of UserService: hits never reach the circuit breaker, retry or rate limiter.
+// Unknown users are cached as empty entries with a shorter TTL. Misses go through a single-flight layer, also when the
+// cache is disabled, so concurrent lookups of the same user share one downstream call.
+@Component
+public class UserCache {
+
+    private final UserService userService;
+    private final boolean enabled;
+    private final Cache<Long, Optional<UserClient.UserResponse>> cache;
+    private final SingleFlight<Long, UserClient.UserResponse> inFlight;
+
+    public UserCache(UserService userService,
+                     MeterRegistry meterRegistry,
+                     @Value("${order.cache.user.enabled:true}") boolean enabled,
+                     @Value("${order.cache.user.max-size:10000}") long maxSize,
+                     @Value("${order.cache.user.ttl:10m}") Duration ttl,
+                     @Value("${order.cache.user.negative-ttl:30s}") Duration negativeTtl) {
+        this.userService = userService;
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(Expiry.creating((Long userId, Optional<UserClient.UserResponse> user) -> user.isPresent() ? ttl : negativeTtl))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "userCache");
+        this.inFlight = new SingleFlight<>("user", meterRegistry);
+    }
+
+    public UserClient.UserResponse getUser(Long userId) {
+        if (!enabled) {
+            return fetch(userId);
+        }
+        Optional<UserClient.UserResponse> user = cache.getIfPresent(userId);
+        if (user == null) {
+            user = load(userId);
+            cache.put(userId, user);
+        }
+        return user.orElseThrow(() -> new UserNotFoundException(userId));
+    }
+
+    // Reactive lookups share entries and in-flight calls with getUser; load is the reactive counterpart of UserService.
+    public Mono<UserClient.UserResponse> getUser(Long userId, Function<Long, Mono<UserClient.UserResponse>> load) {
+        if (!enabled) {
+            return inFlight.execute(userId, load.apply(userId));
+        }
+        Optional<UserClient.UserResponse> cached = cache.getIfPresent(userId);
+        Mono<Optional<UserClient.UserResponse>> user = cached != null ? Mono.just(cached) : inFlight.execute(userId, load.apply(userId))
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .onErrorResume(UserNotFoundException.class, ex -> Mono.just(Optional.empty()))
+                .doOnNext(loaded -> cache.put(userId, loaded));
+        return user.flatMap(found -> found.map(Mono::just).orElseGet(() -> Mono.error(new UserNotFoundException(userId))));
+    }
+
+    public void invalidate(Long userId) {
+        cache.invalidate(userId);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    private Optional<UserClient.UserResponse> load(Long userId) {
+        try {
+            return Optional.ofNullable(fetch(userId));
+        } catch (UserNotFoundException ex) {
+            return Optional.empty();
+        }
+    }
+
+    private UserClient.UserResponse fetch(Long userId) {
+        return inFlight.execute(userId, () -> userService.getUser(userId));
+    }
+}
@@ -0,0 +1,42 @@
+package com.jc.order_service.cache;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+@Component
+@Endpoint(id = "usercache")
+public class UserCacheEndpoint {
+
+    private final UserCache userCache;
+
+    public UserCacheEndpoint(UserCache userCache) {
+        this.userCache = userCache;
+    }
+
+    @ReadOperation
+    public Map<String, Object> stats() {
+        CacheStats stats = userCache.stats();
+        return Map.of(
+                "size", userCache.size(),
+                "hits", stats.hitCount(),
+                "misses", stats.missCount(),
+                "evictions", stats.evictionCount(),
+                "hitRate", stats.hitRate());
+    }
+
+    @DeleteOperation
+    public void invalidateAll() {
+        userCache.invalidateAll();
+    }
+
+    @DeleteOperation
+    public void invalidate(@Selector Long userId) {
+        userCache.invalidate(userId);
+    }
+}
@@ -4,18 +4,34 @@ import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import java.time.LocalDateTime;
+
 @FeignClient(name = "product-service")
 public interface ProductClient {
 
     record ProductResponse(Long id, String name, Double price, String description, Integer stock) {
     }
 
+    record ReservationResponse(String id, Long productId, Integer quantity, String status, LocalDateTime expiresAt) {
+    }
+
     @GetMapping("/products/{id}")
     ProductResponse getProductById(@PathVariable Long id);
 
     @PostMapping("/products/{id}/decrement-stock")
-    void decrementStock(@PathVariable Long id, @RequestParam int quantity);
+    void decrementStock(@PathVariable Long id, @RequestParam int quantity, @RequestHeader("Idempotency-Key") String idempotencyKey);
+
+    @PostMapping("/products/{id}/reservations")
+    ReservationResponse reserveStock(@PathVariable Long id, @RequestParam int quantity, @RequestParam long ttlSeconds,
+                                     @RequestHeader("Idempotency-Key") String reservationId);
+
+    @PostMapping("/products/reservations/{reservationId}/confirm")
+    ReservationResponse confirmReservation(@PathVariable String reservationId);
+
+    @PostMapping("/products/reservations/{reservationId}/release")
+    ReservationResponse releaseReservation(@PathVariable String reservationId);
 
 }
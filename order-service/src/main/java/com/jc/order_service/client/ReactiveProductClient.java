@@ -0,0 +1,27 @@
+package com.jc.order_service.client;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+// Non-blocking counterpart of ProductClient, used when order.reactive.enabled=true. Stock decrements stay on the
+// outbox relay, so only the lookup is needed here.
+@Component
+@ConditionalOnProperty(name = "order.reactive.enabled", havingValue = "true")
+public class ReactiveProductClient {
+
+    private final WebClient webClient;
+
+    public ReactiveProductClient(WebClient.Builder loadBalancedWebClientBuilder) {
+        this.webClient = loadBalancedWebClientBuilder.clone().baseUrl("http://product-service").build();
+    }
+
+    public Mono<ProductClient.ProductResponse> getProductById(Long id) {
+        return webClient.get()
+                .uri("/products/{id}", id)
+                .retrieve()
+                .bodyToMono(ProductClient.ProductResponse.class);
+    }
+
+}
@@ -0,0 +1,26 @@
+package com.jc.order_service.client;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+// Non-blocking counterpart of UserClient, used when order.reactive.enabled=true.
+@Component
+@ConditionalOnProperty(name = "order.reactive.enabled", havingValue = "true")
+public class ReactiveUserClient {
+
+    private final WebClient webClient;
+
+    public ReactiveUserClient(WebClient.Builder loadBalancedWebClientBuilder) {
+        this.webClient = loadBalancedWebClientBuilder.clone().baseUrl("http://user-service").build();
+    }
+
+    public Mono<UserClient.UserResponse> getUserById(Long id) {
+        return webClient.get()
+                .uri("/users/{id}", id)
+                .retrieve()
+                .bodyToMono(UserClient.UserResponse.class);
+    }
+
+}
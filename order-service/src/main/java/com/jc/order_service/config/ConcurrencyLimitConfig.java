@@ -0,0 +1,47 @@
+package com.jc.order_service.config;
+
+import com.jc.order_service.limit.AdaptiveConcurrencyLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ConcurrencyLimitConfig {
+
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double backoffRatio;
+    private final int probeInterval;
+
+    public ConcurrencyLimitConfig(@Value("${order.limiter.initial-limit:20}") int initialLimit,
+                                  @Value("${order.limiter.min-limit:1}") int minLimit,
+                                  @Value("${order.limiter.max-limit:200}") int maxLimit,
+                                  @Value("${order.limiter.tolerance:2.0}") double tolerance,
+                                  @Value("${order.limiter.backoff-ratio:0.9}") double backoffRatio,
+                                  @Value("${order.limiter.probe-interval:500}") int probeInterval) {
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.backoffRatio = backoffRatio;
+        this.probeInterval = probeInterval;
+    }
+
+    @Bean
+    public AdaptiveConcurrencyLimiter userServiceLimiter(MeterRegistry meterRegistry) {
+        return limiter("userService", meterRegistry);
+    }
+
+    @Bean
+    public AdaptiveConcurrencyLimiter productServiceLimiter(MeterRegistry meterRegistry) {
+        return limiter("productService", meterRegistry);
+    }
+
+    private AdaptiveConcurrencyLimiter limiter(String name, MeterRegistry meterRegistry) {
+        return new AdaptiveConcurrencyLimiter(name, meterRegistry, initialLimit, minLimit, maxLimit, tolerance, backoffRatio, probeInterval);
+    }
+
+}
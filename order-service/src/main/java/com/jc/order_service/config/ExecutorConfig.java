@@ -0,0 +1,17 @@
+package com.jc.order_service.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+public class ExecutorConfig {
+
+    @Bean(destroyMethod = "close")
+    public ExecutorService downstreamExecutor() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("downstream-", 0).factory());
+    }
+
+}
@@ -0,0 +1,36 @@
+package com.jc.order_service.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.reactive.function.client.WebClientCustomizer;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.ExecutorService;
+
+@Configuration
+@ConditionalOnProperty(name = "order.reactive.enabled", havingValue = "true")
+public class ReactiveConfig {
+
+    // Resolves http://user-service and http://product-service through the discovery client, like the Feign clients.
+    @Bean
+    @LoadBalanced
+    public WebClient.Builder loadBalancedWebClientBuilder(ObjectProvider<WebClientCustomizer> customizers) {
+        WebClient.Builder builder = WebClient.builder();
+        customizers.orderedStream().forEach(customizer -> customizer.customize(builder));
+        return builder;
+    }
+
+    // JPA and JDBC calls are moved onto virtual threads, so blocking on the database never holds a request or event
+    // loop thread and there is no elastic pool to size; the Hikari pool remains the only bound.
+    @Bean(destroyMethod = "dispose")
+    public Scheduler blockingScheduler(@Qualifier("downstreamExecutor") ExecutorService downstreamExecutor) {
+        return Schedulers.fromExecutorService(downstreamExecutor, "blocking");
+    }
+
+}
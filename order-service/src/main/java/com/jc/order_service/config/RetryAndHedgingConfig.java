@@ -0,0 +1,108 @@
+package com.jc.order_service.config;
+
+import com.jc.order_service.resilience.Hedger;
+import com.jc.order_service.resilience.RetryBudget;
+import feign.FeignException;
+import feign.RetryableException;
+import io.github.resilience4j.common.retry.configuration.RetryConfigCustomizer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.net.ConnectException;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Predicate;
+
+@Configuration
+public class RetryAndHedgingConfig {
+
+    private final double budgetRatio;
+    private final double budgetMaxTokens;
+    private final boolean hedgeEnabled;
+    private final double hedgePercentile;
+    private final Duration hedgeMinDelay;
+    private final Duration hedgeMaxDelay;
+    private final int hedgeWindow;
+
+    public RetryAndHedgingConfig(@Value("${order.retry.budget.ratio:0.1}") double budgetRatio,
+                                 @Value("${order.retry.budget.max-tokens:10}") double budgetMaxTokens,
+                                 @Value("${order.hedge.enabled:true}") boolean hedgeEnabled,
+                                 @Value("${order.hedge.percentile:0.95}") double hedgePercentile,
+                                 @Value("${order.hedge.min-delay:10ms}") Duration hedgeMinDelay,
+                                 @Value("${order.hedge.max-delay:1s}") Duration hedgeMaxDelay,
+                                 @Value("${order.hedge.window:200}") int hedgeWindow) {
+        this.budgetRatio = budgetRatio;
+        this.budgetMaxTokens = budgetMaxTokens;
+        this.hedgeEnabled = hedgeEnabled;
+        this.hedgePercentile = hedgePercentile;
+        this.hedgeMinDelay = hedgeMinDelay;
+        this.hedgeMaxDelay = hedgeMaxDelay;
+        this.hedgeWindow = hedgeWindow;
+    }
+
+    @Bean
+    public RetryBudget userServiceRetryBudget(MeterRegistry meterRegistry) {
+        return new RetryBudget("userService", meterRegistry, budgetRatio, budgetMaxTokens);
+    }
+
+    @Bean
+    public RetryBudget productServiceRetryBudget(MeterRegistry meterRegistry) {
+        return new RetryBudget("productService", meterRegistry, budgetRatio, budgetMaxTokens);
+    }
+
+    @Bean
+    public Hedger userServiceHedger(MeterRegistry meterRegistry,
+                                    @Qualifier("downstreamExecutor") ExecutorService downstreamExecutor,
+                                    @Qualifier("userServiceRetryBudget") RetryBudget retryBudget) {
+        return hedger("userService", meterRegistry, downstreamExecutor, retryBudget);
+    }
+
+    @Bean
+    public Hedger productServiceHedger(MeterRegistry meterRegistry,
+                                       @Qualifier("downstreamExecutor") ExecutorService downstreamExecutor,
+                                       @Qualifier("productServiceRetryBudget") RetryBudget retryBudget) {
+        return hedger("productService", meterRegistry, downstreamExecutor, retryBudget);
+    }
+
+    // Retries are limited to transient failures and drawn from the same budget as hedges. The exception list lives
+    // here rather than in retryExceptions because Resilience4j ORs that list with a custom predicate.
+    @Bean
+    public RetryConfigCustomizer userServiceRetryCustomizer(@Qualifier("userServiceRetryBudget") RetryBudget retryBudget) {
+        return budgetedRetry("userServiceRetry", retryBudget);
+    }
+
+    @Bean
+    public RetryConfigCustomizer productServiceRetryCustomizer(@Qualifier("productServiceRetryBudget") RetryBudget retryBudget) {
+        return budgetedRetry("productServiceRetry", retryBudget);
+    }
+
+    private static RetryConfigCustomizer budgetedRetry(String name, RetryBudget retryBudget) {
+        Predicate<Throwable> retryable = ex -> isTransient(ex) && retryBudget.tryWithdraw();
+        return RetryConfigCustomizer.of(name, builder -> builder.retryExceptions().retryOnException(retryable));
+    }
+
+    static boolean isTransient(Throwable ex) {
+        return ex instanceof FeignException.InternalServerError
+                || ex instanceof FeignException.BadGateway
+                || ex instanceof FeignException.ServiceUnavailable
+                || ex instanceof FeignException.GatewayTimeout
+                || ex instanceof RetryableException
+                || ex instanceof ConnectException
+                || ex instanceof WebClientResponseException.InternalServerError
+                || ex instanceof WebClientResponseException.BadGateway
+                || ex instanceof WebClientResponseException.ServiceUnavailable
+                || ex instanceof WebClientResponseException.GatewayTimeout
+                || ex instanceof WebClientRequestException;
+    }
+
+    private Hedger hedger(String name, MeterRegistry meterRegistry, ExecutorService executor, RetryBudget retryBudget) {
+        return new Hedger(name, meterRegistry, executor, retryBudget, hedgeEnabled, hedgePercentile, hedgeMinDelay,
+                hedgeMaxDelay, hedgeWindow);
+    }
+
+}
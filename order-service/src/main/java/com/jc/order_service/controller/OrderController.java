@@ -1,31 +1,98 @@
 package com.jc.order_service.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jc.order_service.dto.BatchOrderRequest;
+import com.jc.order_service.dto.OrderFilter;
+import com.jc.order_service.dto.OrderPage;
+import com.jc.order_service.dto.OrderResult;
+import com.jc.order_service.entity.OrderStatus;
 import com.jc.order_service.model.Order;
+import com.jc.order_service.model.UserOrderSummary;
 import com.jc.order_service.service.OrderService;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
 @RequestMapping("/orders")
+@ConditionalOnProperty(name = "order.reactive.enabled", havingValue = "false", matchIfMissing = true)
 public class OrderController {
 
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    private static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+
     private final OrderService orderService;
+    private final ObjectMapper objectMapper;
+    private final boolean asyncEnabled;
+    private final int defaultPageSize;
+    private final int maxPageSize;
 
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService,
+                           ObjectMapper objectMapper,
+                           @Value("${order.async.enabled:false}") boolean asyncEnabled,
+                           @Value("${order.listing.default-page-size:50}") int defaultPageSize,
+                           @Value("${order.listing.max-page-size:500}") int maxPageSize) {
         this.orderService = orderService;
+        this.objectMapper = objectMapper;
+        this.asyncEnabled = asyncEnabled;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
     }
 
     @PostMapping
-    public ResponseEntity<Order> createOrder(@Valid @RequestBody Order order) {
-        return ResponseEntity.ok(orderService.createOrder(order));
+    public ResponseEntity<Order> createOrder(@Valid @RequestBody Order order,
+                                             @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        HttpStatus status = asyncEnabled ? HttpStatus.ACCEPTED : HttpStatus.OK;
+        if (idempotencyKey == null) {
+            return ResponseEntity.status(status).body(asyncEnabled ? orderService.submitOrder(order) : orderService.createOrder(order));
+        }
+        OrderResult result = asyncEnabled ? orderService.submitOrder(order, idempotencyKey) : orderService.createOrder(order, idempotencyKey);
+        return ResponseEntity.status(status)
+                .header(IDEMPOTENT_REPLAYED, String.valueOf(result.replayed()))
+                .body(result.order());
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<List<Order>> createOrders(@Valid @RequestBody BatchOrderRequest request) {
+        return ResponseEntity.ok(orderService.createOrders(request.orders()));
     }
 
     @GetMapping
-    public ResponseEntity<List<Order>> getAllOrders() {
-        return ResponseEntity.ok(orderService.getAllOrders());
+    public ResponseEntity<OrderPage> getOrders(@RequestParam(required = false) Long userId,
+                                               @RequestParam(required = false) OrderStatus status,
+                                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                               @RequestParam(required = false) String cursor,
+                                               @RequestParam(required = false) Integer limit) {
+        int pageSize = limit == null ? defaultPageSize : Math.clamp(limit, 1, maxPageSize);
+        return ResponseEntity.ok(orderService.getOrders(new OrderFilter(userId, status, from, to), cursor, pageSize));
+    }
+
+    @GetMapping(value = "/export", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportOrders(@RequestParam(required = false) Long userId,
+                                                              @RequestParam(required = false) OrderStatus status,
+                                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        OrderFilter filter = new OrderFilter(userId, status, from, to);
+        StreamingResponseBody body = out -> orderService.exportOrders(filter, order -> writeLine(out, order));
+        return ResponseEntity.ok().header("Content-Type", NDJSON).body(body);
+    }
+
+    @GetMapping("/summary/{userId}")
+    public ResponseEntity<UserOrderSummary> getOrderSummary(@PathVariable Long userId) {
+        return ResponseEntity.ok(orderService.getOrderSummary(userId));
     }
 
     @GetMapping("/{id}")
@@ -44,5 +111,14 @@ public class OrderController {
         return ResponseEntity.noContent().build();
     }
 
+    private void writeLine(OutputStream out, Order order) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(order));
+            out.write('\n');
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
 
 }
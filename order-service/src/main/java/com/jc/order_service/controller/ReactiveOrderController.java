@@ -0,0 +1,183 @@
+package com.jc.order_service.controller;
+
+import com.jc.order_service.dto.BatchOrderRequest;
+import com.jc.order_service.dto.OrderFilter;
+import com.jc.order_service.dto.OrderPage;
+import com.jc.order_service.entity.OrderStatus;
+import com.jc.order_service.model.Order;
+import com.jc.order_service.model.UserOrderSummary;
+import com.jc.order_service.service.OrderService;
+import com.jc.order_service.service.ReactiveOrderService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+
+// Same API as OrderController, served when order.reactive.enabled=true. Request threads are released while an order
+// waits on user-service and product-service; database work runs on the blocking scheduler.
+@RestController
+@RequestMapping("/orders")
+@ConditionalOnProperty(name = "order.reactive.enabled", havingValue = "true")
+public class ReactiveOrderController {
+
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    private static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+
+    private final OrderService orderService;
+    private final ReactiveOrderService reactiveOrderService;
+    private final Scheduler blockingScheduler;
+    private final boolean asyncEnabled;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+
+    public ReactiveOrderController(OrderService orderService,
+                                   ReactiveOrderService reactiveOrderService,
+                                   @Qualifier("blockingScheduler") Scheduler blockingScheduler,
+                                   @Value("${order.async.enabled:false}") boolean asyncEnabled,
+                                   @Value("${order.listing.default-page-size:50}") int defaultPageSize,
+                                   @Value("${order.listing.max-page-size:500}") int maxPageSize) {
+        this.orderService = orderService;
+        this.reactiveOrderService = reactiveOrderService;
+        this.blockingScheduler = blockingScheduler;
+        this.asyncEnabled = asyncEnabled;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+    }
+
+    // The async pipeline already answers without waiting on downstream services, so it is only moved off the
+    // request thread.
+    @PostMapping
+    public Mono<ResponseEntity<Order>> createOrder(@Valid @RequestBody Order order,
+                                                   @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        if (asyncEnabled) {
+            if (idempotencyKey == null) {
+                return blocking(() -> ResponseEntity.status(HttpStatus.ACCEPTED).body(orderService.submitOrder(order)));
+            }
+            return blocking(() -> orderService.submitOrder(order, idempotencyKey))
+                    .map(result -> ResponseEntity.status(HttpStatus.ACCEPTED)
+                            .header(IDEMPOTENT_REPLAYED, String.valueOf(result.replayed()))
+                            .body(result.order()));
+        }
+        return reactiveOrderService.createOrder(order, idempotencyKey)
+                .map(result -> idempotencyKey == null
+                        ? ResponseEntity.ok(result.order())
+                        : ResponseEntity.ok().header(IDEMPOTENT_REPLAYED, String.valueOf(result.replayed())).body(result.order()));
+    }
+
+    @PostMapping("/batch")
+    public Mono<ResponseEntity<List<Order>>> createOrders(@Valid @RequestBody BatchOrderRequest request) {
+        return blocking(() -> ResponseEntity.ok(orderService.createOrders(request.orders())));
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<OrderPage>> getOrders(@RequestParam(required = false) Long userId,
+                                                     @RequestParam(required = false) OrderStatus status,
+                                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                                     @RequestParam(required = false) String cursor,
+                                                     @RequestParam(required = false) Integer limit) {
+        int pageSize = limit == null ? defaultPageSize : Math.clamp(limit, 1, maxPageSize);
+        return blocking(() -> ResponseEntity.ok(orderService.getOrders(new OrderFilter(userId, status, from, to), cursor, pageSize)));
+    }
+
+    // Rows are pushed as the export cursor reads them, but only as fast as the client requests them: the cursor thread
+    // waits for demand instead of letting the sink buffer the whole result set. Requests must not queue behind the
+    // waiting cursor on the same worker, hence subscribeOn(..., false).
+    @GetMapping(value = "/export", produces = NDJSON)
+    public Flux<Order> exportOrders(@RequestParam(required = false) Long userId,
+                                    @RequestParam(required = false) OrderStatus status,
+                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        OrderFilter filter = new OrderFilter(userId, status, from, to);
+        return Flux.<Order>create(sink -> {
+            Demand demand = new Demand();
+            sink.onRequest(demand::add);
+            sink.onCancel(demand::cancel);
+            try {
+                orderService.exportOrders(filter, order -> {
+                    demand.take();
+                    sink.next(order);
+                });
+                sink.complete();
+            } catch (CancellationException ex) {
+                // the client went away; the cursor is closed by unwinding out of the export
+            } catch (RuntimeException ex) {
+                sink.error(ex);
+            }
+        }).subscribeOn(blockingScheduler, false);
+    }
+
+    @GetMapping("/summary/{userId}")
+    public Mono<ResponseEntity<UserOrderSummary>> getOrderSummary(@PathVariable Long userId) {
+        return blocking(() -> ResponseEntity.ok(orderService.getOrderSummary(userId)));
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Order>> getOrderById(@PathVariable Long id) {
+        return blocking(() -> ResponseEntity.ok(orderService.getOrderById(id)));
+    }
+
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<Order>> updateOrder(@PathVariable Long id, @Valid @RequestBody Order order) {
+        return blocking(() -> ResponseEntity.ok(orderService.updateOrder(id, order)));
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> deleteOrder(@PathVariable Long id) {
+        return blocking(() -> {
+            orderService.deleteOrder(id);
+            return ResponseEntity.noContent().<Void>build();
+        });
+    }
+
+    private <T> Mono<T> blocking(Callable<T> call) {
+        return Mono.fromCallable(call).subscribeOn(blockingScheduler);
+    }
+
+    private static final class Demand {
+
+        private long requested;
+        private boolean cancelled;
+
+        synchronized void add(long n) {
+            requested = requested + n < 0 ? Long.MAX_VALUE : requested + n;
+            notifyAll();
+        }
+
+        synchronized void cancel() {
+            cancelled = true;
+            notifyAll();
+        }
+
+        synchronized void take() {
+            while (requested == 0 && !cancelled) {
+                try {
+                    wait();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    cancelled = true;
+                }
+            }
+            if (cancelled) {
+                throw new CancellationException();
+            }
+            if (requested != Long.MAX_VALUE) {
+                requested--;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,15 @@
+package com.jc.order_service.dto;
+
+import com.jc.order_service.model.Order;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record BatchOrderRequest(
+        @NotEmpty(message = "At least one order is required")
+        @Size(max = 1000, message = "A batch may contain at most 1000 orders")
+        List<@Valid @NotNull Order> orders) {
+}
@@ -0,0 +1,9 @@
+package com.jc.order_service.dto;
+
+import com.jc.order_service.entity.OrderStatus;
+
+import java.time.LocalDateTime;
+
+// from is inclusive and to is exclusive; any field may be null to leave it unconstrained.
+public record OrderFilter(Long userId, OrderStatus status, LocalDateTime from, LocalDateTime to) {
+}
@@ -0,0 +1,8 @@
+package com.jc.order_service.dto;
+
+import com.jc.order_service.model.Order;
+
+import java.util.List;
+
+public record OrderPage(List<Order> orders, String nextCursor) {
+}
@@ -0,0 +1,6 @@
+package com.jc.order_service.dto;
+
+import com.jc.order_service.model.Order;
+
+public record OrderResult(Order order, boolean replayed) {
+}
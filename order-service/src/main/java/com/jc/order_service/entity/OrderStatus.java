@@ -1,5 +1,9 @@
 package com.jc.order_service.entity;
 
 public enum OrderStatus {
-    PENDING, CONFIRMED, SHIPPED, DELIVERED, CANCELLED;
+    PENDING, CONFIRMED, SHIPPED, DELIVERED, CANCELLED, FAILED;
+
+    public boolean isTerminal() {
+        return this == DELIVERED || this == CANCELLED || this == FAILED;
+    }
 }
@@ -25,6 +25,11 @@ public class GlobalExceptionHandler {
         return buildResponse(HttpStatus.NOT_FOUND, "Order not found", Collections.singletonList(ex.getMessage()));
     }
 
+    @ExceptionHandler(OrderArchivedException.class)
+    public ResponseEntity<ErrorResponse> handleOrderArchived(OrderArchivedException ex) {
+        return buildResponse(HttpStatus.CONFLICT, "Order archived", Collections.singletonList(ex.getMessage()));
+    }
+
     @ExceptionHandler(ProductNotFoundException.class)
     public ResponseEntity<ErrorResponse> handleProductNotFound(ProductNotFoundException ex) {
         return buildResponse(HttpStatus.NOT_FOUND, "Product not found", Collections.singletonList(ex.getMessage()));
@@ -45,6 +50,26 @@ public class GlobalExceptionHandler {
         return buildResponse(HttpStatus.BAD_GATEWAY, "External service error", Collections.singletonList(ex.getMessage()));
     }
 
+    @ExceptionHandler(OrderQueueFullException.class)
+    public ResponseEntity<ErrorResponse> handleOrderQueueFull(OrderQueueFullException ex) {
+        return buildResponse(HttpStatus.SERVICE_UNAVAILABLE, "Order queue full", Collections.singletonList(ex.getMessage()));
+    }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidCursor(InvalidCursorException ex) {
+        return buildResponse(HttpStatus.BAD_REQUEST, "Invalid cursor", Collections.singletonList(ex.getMessage()));
+    }
+
+    @ExceptionHandler(InvalidIdempotencyKeyException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidIdempotencyKey(InvalidIdempotencyKeyException ex) {
+        return buildResponse(HttpStatus.BAD_REQUEST, "Invalid idempotency key", Collections.singletonList(ex.getMessage()));
+    }
+
+    @ExceptionHandler(IdempotencyKeyConflictException.class)
+    public ResponseEntity<ErrorResponse> handleIdempotencyKeyConflict(IdempotencyKeyConflictException ex) {
+        return buildResponse(HttpStatus.UNPROCESSABLE_ENTITY, "Idempotency key conflict", Collections.singletonList(ex.getMessage()));
+    }
+
     @ExceptionHandler(FeignException.NotFound.class)
     public ResponseEntity<ErrorResponse> handleFeignNotFound(FeignException.NotFound ex) {
         return buildResponse(HttpStatus.NOT_FOUND, ex.getMessage(), List.of("External service not found"));
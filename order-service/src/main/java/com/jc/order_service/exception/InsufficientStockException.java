@@ -4,4 +4,8 @@ public class InsufficientStockException extends RuntimeException {
     public InsufficientStockException(Long productId, int requested, int available) {
         super("Insufficient stock for product ID: " + productId + ". Requested: " + requested + ", Available: " + available);
     }
+
+    public InsufficientStockException(Long productId, int requested) {
+        super("Insufficient stock for product ID: " + productId + ". Requested: " + requested);
+    }
 }
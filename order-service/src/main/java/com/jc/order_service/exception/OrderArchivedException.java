@@ -0,0 +1,7 @@
+package com.jc.order_service.exception;
+
+public class OrderArchivedException extends RuntimeException {
+    public OrderArchivedException(Long id) {
+        super("Order with ID: " + id + " is archived and can no longer be changed");
+    }
+}
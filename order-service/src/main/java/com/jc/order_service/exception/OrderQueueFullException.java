@@ -0,0 +1,7 @@
+package com.jc.order_service.exception;
+
+public class OrderQueueFullException extends RuntimeException {
+    public OrderQueueFullException() {
+        super("Order queue is full, please retry later");
+    }
+}
@@ -0,0 +1,7 @@
+package com.jc.order_service.exception;
+
+public class ReservationReleasedException extends RuntimeException {
+    public ReservationReleasedException(String reservationId) {
+        super("Stock reservation " + reservationId + " has already been released");
+    }
+}
@@ -0,0 +1,75 @@
+package com.jc.order_service.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.jc.order_service.model.IdempotencyKey;
+import com.jc.order_service.repository.IdempotencyKeyRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+// Recently used idempotency keys, checked in memory before the order_idempotency_keys table. A miss costs one lookup by
+// the table's unique key, and always before any downstream call, so a retry that lands on another instance (or after a
+// restart or eviction) is still replayed. The unique constraint itself only settles two first requests racing.
+@Component
+public class IdempotencyIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyIndex.class);
+
+    private final IdempotencyKeyRepository repository;
+    private final Cache<String, IdempotencyKey> recent;
+    private final Duration retention;
+    private final Counter replays;
+
+    public IdempotencyIndex(IdempotencyKeyRepository repository,
+                            MeterRegistry meterRegistry,
+                            @Value("${order.idempotency.cache-max-size:100000}") long maxSize,
+                            @Value("${order.idempotency.retention:24h}") Duration retention) {
+        this.repository = repository;
+        this.retention = retention;
+        this.recent = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(retention)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, recent, "idempotencyKeys");
+        this.replays = meterRegistry.counter("orders.idempotency.replayed");
+    }
+
+    public Optional<IdempotencyKey> find(String idempotencyKey) {
+        IdempotencyKey cached = recent.getIfPresent(idempotencyKey);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<IdempotencyKey> stored = repository.findByIdempotencyKey(idempotencyKey);
+        stored.ifPresent(this::remember);
+        return stored;
+    }
+
+    public void remember(IdempotencyKey key) {
+        recent.put(key.getIdempotencyKey(), key);
+    }
+
+    public void recordReplay() {
+        replays.increment();
+    }
+
+    @Scheduled(fixedDelayString = "${order.idempotency.purge-interval-ms:3600000}")
+    @Transactional
+    public void purgeExpired() {
+        int purged = repository.deleteCreatedBefore(LocalDateTime.now().minus(retention));
+        if (purged > 0) {
+            logger.info("Purged {} expired idempotency keys", purged);
+        }
+    }
+}
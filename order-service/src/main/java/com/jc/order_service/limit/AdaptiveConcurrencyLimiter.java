@@ -0,0 +1,157 @@
+package com.jc.order_service.limit;
+
+import com.jc.order_service.exception.ConcurrencyLimitExceededException;
+import feign.FeignException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// AIMD concurrency limit driven by downstream latency. A call that completes within tolerance times the lowest recent
+// latency raises the limit by one while the limit is actually being used; a slower call or a failure without a response
+// (timeout, 5xx, connection error) cuts it by backoff-ratio. The limit is cut at most once per round trip: a sample
+// from a call that started before the last cut describes the load that cut already answered. Calls over the limit are
+// rejected immediately.
+public class AdaptiveConcurrencyLimiter {
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double backoffRatio;
+    private final int probeInterval;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter rejected;
+
+    private volatile int limit;
+    private double estimatedLimit;
+    private long minRttNanos = Long.MAX_VALUE;
+    private int samplesSinceProbe;
+    private long lastDecreaseNanos = System.nanoTime();
+
+    public AdaptiveConcurrencyLimiter(String name, MeterRegistry meterRegistry, int initialLimit, int minLimit, int maxLimit,
+                                      double tolerance, double backoffRatio, int probeInterval) {
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.backoffRatio = backoffRatio;
+        this.probeInterval = probeInterval;
+        this.estimatedLimit = Math.clamp(initialLimit, minLimit, maxLimit);
+        this.limit = (int) estimatedLimit;
+        Gauge.builder("downstream.limiter.limit", this, AdaptiveConcurrencyLimiter::getLimit).tag("name", name).register(meterRegistry);
+        Gauge.builder("downstream.limiter.in.flight", inFlight, AtomicInteger::get).tag("name", name).register(meterRegistry);
+        this.rejected = Counter.builder("downstream.limiter.rejected").tag("name", name).register(meterRegistry);
+    }
+
+    public <T> T execute(Supplier<T> call) {
+        int inFlightAtStart = tryAcquire();
+        long start = System.nanoTime();
+        boolean dropped = false;
+        try {
+            return call.get();
+        } catch (FeignException.FeignClientException ex) {
+            // A 4xx is a normal answer from a healthy downstream and counts as a latency sample.
+            throw ex;
+        } catch (RuntimeException | Error ex) {
+            dropped = true;
+            throw ex;
+        } finally {
+            inFlight.decrementAndGet();
+            onSample(start, inFlightAtStart, dropped);
+        }
+    }
+
+    public void run(Runnable call) {
+        execute(() -> {
+            call.run();
+            return null;
+        });
+    }
+
+    // Non-blocking variant: the permit is taken on subscribe and released on the first terminal signal or cancel. A
+    // cancelled call (a sibling lookup failed, the client went away) measured nothing and is not fed in as a sample.
+    public <T> Mono<T> execute(Mono<T> call) {
+        return Mono.defer(() -> {
+            int inFlightAtStart = tryAcquire();
+            long start = System.nanoTime();
+            AtomicBoolean released = new AtomicBoolean();
+            Consumer<Boolean> release = dropped -> {
+                if (released.compareAndSet(false, true)) {
+                    inFlight.decrementAndGet();
+                    onSample(start, inFlightAtStart, dropped);
+                }
+            };
+            return call
+                    .doOnSuccess(value -> release.accept(false))
+                    .doOnError(ex -> release.accept(!isClientError(ex)))
+                    .doOnCancel(() -> {
+                        if (released.compareAndSet(false, true)) {
+                            inFlight.decrementAndGet();
+                        }
+                    });
+        });
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private int tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                rejected.increment();
+                throw new ConcurrencyLimitExceededException(name, limit);
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    private synchronized void onSample(long startNanos, int inFlightAtStart, boolean dropped) {
+        long now = System.nanoTime();
+        long rttNanos = now - startNanos;
+        if (dropped) {
+            decrease(startNanos, now);
+            return;
+        }
+        // The minimum is re-probed periodically so a permanent shift in downstream latency is eventually accepted.
+        if (++samplesSinceProbe >= probeInterval) {
+            samplesSinceProbe = 0;
+            minRttNanos = rttNanos;
+        }
+        minRttNanos = Math.min(minRttNanos, rttNanos);
+        if (rttNanos > minRttNanos * tolerance) {
+            decrease(startNanos, now);
+        } else if (inFlightAtStart * 2 >= limit) {
+            estimatedLimit = Math.min(maxLimit, estimatedLimit + 1);
+            limit = (int) estimatedLimit;
+        }
+    }
+
+    private static boolean isClientError(Throwable ex) {
+        return ex instanceof FeignException.FeignClientException
+                || ex instanceof WebClientResponseException response && response.getStatusCode().is4xxClientError();
+    }
+
+    private void decrease(long startNanos, long now) {
+        if (startNanos - lastDecreaseNanos < 0) {
+            return;
+        }
+        lastDecreaseNanos = now;
+        estimatedLimit = Math.max(minLimit, estimatedLimit * backoffRatio);
+        limit = (int) estimatedLimit;
+    }
+}
@@ -0,0 +1,114 @@
+package com.jc.order_service.metrics;
+
+import com.jc.order_service.exception.ConcurrencyLimitExceededException;
+import feign.FeignException;
+import feign.RetryableException;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.ratelimiter.RequestNotPermitted;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+// Times every single attempt against a Feign client, so the histograms show network time only. Retries, hedges and
+// fallbacks show up as extra samples here and in the resilience4j meters, not as longer samples.
+@Component
+public class DownstreamMetrics {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<TimerKey, Timer> timers = new ConcurrentHashMap<>();
+
+    public DownstreamMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public <T> T time(String client, String method, Supplier<T> call) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            return call.get();
+        } catch (RuntimeException ex) {
+            outcome = outcome(ex);
+            throw ex;
+        } finally {
+            sample.stop(timer(client, method, outcome));
+        }
+    }
+
+    public void run(String client, String method, Runnable call) {
+        time(client, method, () -> {
+            call.run();
+            return null;
+        });
+    }
+
+    // Reactive variant: the sample starts on subscribe. A cancelled call (e.g. the caller gave up) is not recorded.
+    public <T> Mono<T> time(String client, String method, Mono<T> call) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return call
+                    .doOnSuccess(value -> sample.stop(timer(client, method, "success")))
+                    .doOnError(ex -> sample.stop(timer(client, method, outcome(ex))));
+        });
+    }
+
+    public void fallback(String service, String method, Throwable t) {
+        meterRegistry.counter("downstream.fallback", "service", service, "method", method, "branch", branch(t)).increment();
+    }
+
+    // Looked up once per (client, method, outcome); building and registering a Timer on every call allocated the tags
+    // and went through the registry's meter lookup each time.
+    private Timer timer(String client, String method, String outcome) {
+        return timers.computeIfAbsent(new TimerKey(client, method, outcome), key -> Timer.builder("downstream.client.calls")
+                .tag("client", client)
+                .tag("method", method)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    private static String outcome(Throwable ex) {
+        return switch (ex) {
+            case FeignException.NotFound notFound -> "not_found";
+            case WebClientResponseException.NotFound notFound -> "not_found";
+            case WebClientResponseException response when response.getStatusCode().is4xxClientError() -> "client_error";
+            case WebClientResponseException response when response.getStatusCode().is5xxServerError() -> "server_error";
+            case WebClientRequestException request when request.getCause() instanceof ConnectException -> "connect_failure";
+            case RetryableException retryable when retryable.getCause() instanceof SocketTimeoutException -> "timeout";
+            case RetryableException retryable when retryable.getCause() instanceof ConnectException -> "connect_failure";
+            case FeignException feign when feign.status() >= 400 && feign.status() < 500 -> "client_error";
+            case FeignException feign when feign.status() >= 500 -> "server_error";
+            default -> "error";
+        };
+    }
+
+    private static String branch(Throwable t) {
+        return switch (t) {
+            case FeignException.NotFound notFound -> "not_found";
+            case FeignException.BadRequest badRequest -> "bad_request";
+            case FeignException.Conflict conflict -> "conflict";
+            case WebClientResponseException.NotFound notFound -> "not_found";
+            case WebClientResponseException.BadRequest badRequest -> "bad_request";
+            case CallNotPermittedException callNotPermitted -> "breaker_open";
+            case RequestNotPermitted requestNotPermitted -> "rate_limited";
+            case BulkheadFullException bulkheadFull -> "bulkhead_full";
+            case ConcurrencyLimitExceededException limitExceeded -> "concurrency_limited";
+            case ConnectException connect -> "connect_failure";
+            case RetryableException retryable when retryable.getCause() instanceof ConnectException -> "connect_failure";
+            case WebClientRequestException request when request.getCause() instanceof ConnectException -> "connect_failure";
+            default -> "other";
+        };
+    }
+
+    private record TimerKey(String client, String method, String outcome) {
+    }
+}
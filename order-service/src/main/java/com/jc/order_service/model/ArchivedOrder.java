@@ -0,0 +1,45 @@
+package com.jc.order_service.model;
+
+import com.jc.order_service.entity.OrderStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Same columns as orders plus the time the row was moved; ids are kept so archived orders resolve by their original id.
+@Entity
+@Table(name = "orders_archive", indexes = {
+        @Index(name = "idx_orders_archive_user_created", columnList = "userId, createdAt")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ArchivedOrder {
+
+    @Id
+    private Long id;
+
+    private Long userId;
+
+    private Long productId;
+
+    private Integer quantity;
+
+    @Enumerated(EnumType.STRING)
+    private OrderStatus status;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+
+    private LocalDateTime archivedAt;
+
+    public Order toOrder() {
+        return new Order(id, userId, productId, quantity, status, createdAt, updatedAt);
+    }
+
+}
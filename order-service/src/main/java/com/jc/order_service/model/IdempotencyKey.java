@@ -0,0 +1,50 @@
+package com.jc.order_service.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "order_idempotency_keys", indexes = @Index(name = "idx_order_idempotency_created", columnList = "createdAt"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IdempotencyKey {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true)
+    private String idempotencyKey;
+
+    private Long orderId;
+
+    // userId:productId:quantity of the original request, so a key reused for a different order is rejected.
+    private String requestFingerprint;
+
+    private LocalDateTime createdAt;
+
+    public static IdempotencyKey of(String idempotencyKey, Order order) {
+        return IdempotencyKey.builder()
+                .idempotencyKey(idempotencyKey)
+                .orderId(order.getId())
+                .requestFingerprint(fingerprint(order))
+                .build();
+    }
+
+    public static String fingerprint(Order order) {
+        return order.getUserId() + ":" + order.getProductId() + ":" + order.getQuantity();
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+}
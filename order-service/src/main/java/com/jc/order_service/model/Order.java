@@ -12,7 +12,11 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_user_created", columnList = "userId, createdAt"),
+        @Index(name = "idx_orders_status_created", columnList = "status, createdAt"),
+        @Index(name = "idx_orders_created", columnList = "createdAt, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
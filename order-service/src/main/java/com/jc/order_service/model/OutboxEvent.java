@@ -0,0 +1,78 @@
+package com.jc.order_service.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+// Pending stock confirmation (or, for events written before reservations existed, a plain decrement), written in the
+// same transaction as the order(s) it belongs to.
+@Entity
+@Table(name = "stock_outbox", indexes = @Index(name = "idx_stock_outbox_next_attempt", columnList = "nextAttemptAt"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Long productId;
+
+    private Integer quantity;
+
+    private String reservationId;
+
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "stock_outbox_orders", joinColumns = @JoinColumn(name = "event_id"))
+    @Column(name = "order_id")
+    @BatchSize(size = 100)
+    @Builder.Default
+    private Set<Long> orderIds = new HashSet<>();
+
+    private int attempts;
+
+    private String lastError;
+
+    private LocalDateTime nextAttemptAt;
+
+    private LocalDateTime createdAt;
+
+    public static OutboxEvent stockDecrement(Long productId, int quantity, Set<Long> orderIds) {
+        return OutboxEvent.builder()
+                .productId(productId)
+                .quantity(quantity)
+                .orderIds(new HashSet<>(orderIds))
+                .build();
+    }
+
+    public static OutboxEvent stockConfirmation(Long productId, int quantity, String reservationId, Set<Long> orderIds) {
+        return OutboxEvent.builder()
+                .productId(productId)
+                .quantity(quantity)
+                .reservationId(reservationId)
+                .orderIds(new HashSet<>(orderIds))
+                .build();
+    }
+
+    public String idempotencyKey() {
+        return "order-outbox-" + id;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (nextAttemptAt == null) {
+            nextAttemptAt = createdAt;
+        }
+    }
+
+}
@@ -0,0 +1,34 @@
+package com.jc.order_service.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "user_order_summaries")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserOrderSummary {
+
+    @Id
+    private Long userId;
+
+    private Long orderCount;
+
+    private Long totalQuantity;
+
+    private LocalDateTime lastOrderAt;
+
+    public static UserOrderSummary empty(Long userId) {
+        return new UserOrderSummary(userId, 0L, 0L, null);
+    }
+
+}
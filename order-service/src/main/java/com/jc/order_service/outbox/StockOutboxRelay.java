@@ -0,0 +1,109 @@
+package com.jc.order_service.outbox;
+
+import com.jc.order_service.entity.OrderStatus;
+import com.jc.order_service.exception.InsufficientStockException;
+import com.jc.order_service.exception.ProductNotFoundException;
+import com.jc.order_service.exception.ReservationReleasedException;
+import com.jc.order_service.model.OutboxEvent;
+import com.jc.order_service.repository.OrderRepository;
+import com.jc.order_service.repository.OutboxEventRepository;
+import com.jc.order_service.service.ProductService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Drains the stock outbox to product-service. Confirming a reservation is idempotent and a legacy decrement carries its
+// own idempotency key, so an event that is sent again after a lost response is not applied twice.
+@Component
+public class StockOutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockOutboxRelay.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OrderRepository orderRepository;
+    private final ProductService productService;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration baseBackoff;
+    private final Duration maxBackoff;
+    private final Counter confirmed;
+    private final Counter failed;
+    private final Counter retried;
+
+    public StockOutboxRelay(OutboxEventRepository outboxEventRepository,
+                            OrderRepository orderRepository,
+                            ProductService productService,
+                            TransactionTemplate transactionTemplate,
+                            MeterRegistry meterRegistry,
+                            @Value("${order.outbox.batch-size:100}") int batchSize,
+                            @Value("${order.outbox.base-backoff:1s}") Duration baseBackoff,
+                            @Value("${order.outbox.max-backoff:5m}") Duration maxBackoff) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.orderRepository = orderRepository;
+        this.productService = productService;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.baseBackoff = baseBackoff;
+        this.maxBackoff = maxBackoff;
+        this.confirmed = meterRegistry.counter("orders.outbox.relayed", "outcome", "confirmed");
+        this.failed = meterRegistry.counter("orders.outbox.relayed", "outcome", "failed");
+        this.retried = meterRegistry.counter("orders.outbox.relayed", "outcome", "retry");
+    }
+
+    @Scheduled(fixedDelayString = "${order.outbox.poll-interval-ms:1000}")
+    public void relay() {
+        List<OutboxEvent> batch;
+        do {
+            batch = outboxEventRepository.findByNextAttemptAtLessThanEqualOrderByIdAsc(LocalDateTime.now(), PageRequest.of(0, batchSize));
+            batch.forEach(this::send);
+        } while (batch.size() == batchSize);
+    }
+
+    private void send(OutboxEvent event) {
+        try {
+            if (event.getReservationId() != null) {
+                productService.confirmReservation(event.getReservationId());
+            } else {
+                productService.decrementStock(event.getProductId(), event.getQuantity(), event.idempotencyKey());
+            }
+            complete(event, OrderStatus.CONFIRMED);
+            confirmed.increment();
+        } catch (InsufficientStockException | ProductNotFoundException | ReservationReleasedException ex) {
+            logger.warn("Stock for orders {} rejected: {}", event.getOrderIds(), ex.getMessage());
+            complete(event, OrderStatus.FAILED);
+            failed.increment();
+        } catch (RuntimeException ex) {
+            reschedule(event, ex);
+            retried.increment();
+        }
+    }
+
+    private void complete(OutboxEvent event, OrderStatus status) {
+        transactionTemplate.executeWithoutResult(tx -> {
+            orderRepository.updateStatus(event.getOrderIds(), OrderStatus.PENDING, status, LocalDateTime.now());
+            outboxEventRepository.deleteById(event.getId());
+        });
+    }
+
+    private void reschedule(OutboxEvent event, RuntimeException ex) {
+        int attempts = event.getAttempts() + 1;
+        long backoffMillis = Math.min(maxBackoff.toMillis(), baseBackoff.toMillis() << Math.min(attempts - 1, 20));
+        String error = ex.getMessage() == null ? ex.getClass().getSimpleName() : ex.getMessage();
+        event.setAttempts(attempts);
+        event.setNextAttemptAt(LocalDateTime.now().plus(Duration.ofMillis(backoffMillis)));
+        event.setLastError(error.length() > 255 ? error.substring(0, 255) : error);
+        outboxEventRepository.save(event);
+        logger.warn("Stock update for orders {} failed (attempt {}), retrying in {} ms: {}",
+                event.getOrderIds(), attempts, backoffMillis, error);
+    }
+}
@@ -0,0 +1,113 @@
+package com.jc.order_service.queue;
+
+import com.jc.order_service.exception.OrderQueueFullException;
+import com.jc.order_service.model.Order;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// Bounded pool that processes PENDING orders off the request thread. A permit is taken before the order is
+// persisted, so a full queue rejects the request instead of piling up unprocessed orders.
+@Component
+public class OrderWorkQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderWorkQueue.class);
+
+    private final ThreadPoolExecutor workers;
+    private final Semaphore capacity;
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+    private final Counter rejected;
+    private final Timer processing;
+
+    public OrderWorkQueue(MeterRegistry meterRegistry,
+                          @Value("${order.async.workers:8}") int workers,
+                          @Value("${order.async.queue-capacity:1000}") int queueCapacity) {
+        this.workers = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                Thread.ofPlatform().name("order-worker-", 0).factory());
+        this.capacity = new Semaphore(queueCapacity);
+        Gauge.builder("orders.async.queue.depth", this.workers, executor -> executor.getQueue().size())
+                .description("Orders waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("orders.async.in.flight", inFlight, Set::size)
+                .description("Orders queued or being processed")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("orders.async.rejected")
+                .description("Orders rejected because the queue was full")
+                .register(meterRegistry);
+        this.processing = Timer.builder("orders.async.processing")
+                .description("Time spent validating and confirming a pending order")
+                .register(meterRegistry);
+    }
+
+    public Order submit(Supplier<Order> admit, Consumer<Long> task) {
+        if (!capacity.tryAcquire()) {
+            rejected.increment();
+            throw new OrderQueueFullException();
+        }
+        Order order;
+        try {
+            order = admit.get();
+        } catch (RuntimeException ex) {
+            capacity.release();
+            throw ex;
+        }
+        enqueue(order.getId(), task);
+        return order;
+    }
+
+    public void resubmit(Long orderId, Consumer<Long> task) throws InterruptedException {
+        capacity.acquire();
+        enqueue(orderId, task);
+    }
+
+    public int inFlight() {
+        return inFlight.size();
+    }
+
+    private void enqueue(Long orderId, Consumer<Long> task) {
+        if (!inFlight.add(orderId)) {
+            capacity.release();
+            return;
+        }
+        try {
+            workers.execute(() -> {
+                try {
+                    processing.record(() -> task.accept(orderId));
+                } catch (RuntimeException ex) {
+                    logger.error("Processing of order {} failed: {}", orderId, ex.getMessage());
+                } finally {
+                    inFlight.remove(orderId);
+                    capacity.release();
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            // Shutting down: the order stays PENDING and is picked up again on the next start.
+            inFlight.remove(orderId);
+            capacity.release();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        workers.shutdown();
+        if (!workers.awaitTermination(10, TimeUnit.SECONDS)) {
+            logger.warn("{} orders still pending at shutdown, they will be recovered on restart", workers.shutdownNow().size());
+        }
+    }
+}
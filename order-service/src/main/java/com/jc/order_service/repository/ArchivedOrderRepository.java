@@ -0,0 +1,28 @@
+package com.jc.order_service.repository;
+
+import com.jc.order_service.model.ArchivedOrder;
+import com.jc.order_service.model.UserOrderSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface ArchivedOrderRepository extends JpaRepository<ArchivedOrder, Long> {
+
+    @Modifying
+    @Query(value = "insert into orders_archive (id, user_id, product_id, quantity, status, created_at, updated_at, archived_at) " +
+            "select id, user_id, product_id, quantity, status, created_at, updated_at, :archivedAt from orders where id in :ids",
+            nativeQuery = true)
+    int copyFromOrders(Collection<Long> ids, LocalDateTime archivedAt);
+
+    @Query("select max(o.createdAt) from ArchivedOrder o where o.userId = :userId")
+    LocalDateTime findLastCreatedAtByUserId(Long userId);
+
+    @Query("select new com.jc.order_service.model.UserOrderSummary(o.userId, count(o), sum(o.quantity), max(o.createdAt)) " +
+            "from ArchivedOrder o group by o.userId")
+    List<UserOrderSummary> aggregateByUser();
+
+}
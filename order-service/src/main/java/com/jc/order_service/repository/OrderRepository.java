@@ -1,7 +1,38 @@
 package com.jc.order_service.repository;
 
+import com.jc.order_service.entity.OrderStatus;
 import com.jc.order_service.model.Order;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface OrderRepository extends JpaRepository<Order, Long>, OrderRepositoryCustom {
+
+    @Query("select o.id from Order o where o.status = :status " +
+            "and not exists (select e.id from OutboxEvent e join e.orderIds orderId where orderId = o.id) order by o.id")
+    List<Long> findIdsByStatusWithoutStockEvent(OrderStatus status);
+
+    @Query("select max(o.createdAt) from Order o where o.userId = :userId")
+    LocalDateTime findLastCreatedAtByUserId(Long userId);
+
+    // Locks the batch it returns and skips rows locked by another instance's run, so concurrent runs take disjoint batches.
+    @Query(value = "select id from orders where status in (:statuses) and created_at < :before " +
+            "order by created_at, id limit :limit for update skip locked", nativeQuery = true)
+    List<Long> lockIdsToArchive(Collection<String> statuses, LocalDateTime before, int limit);
+
+    @Query("select count(o) from Order o where o.status in :statuses and o.createdAt < :before")
+    long countToArchive(Collection<OrderStatus> statuses, LocalDateTime before);
+
+    @Modifying
+    @Query("delete from Order o where o.id in :ids")
+    int deleteAllByIdIn(Collection<Long> ids);
+
+    @Modifying
+    @Query("update Order o set o.status = :to, o.updatedAt = :now where o.id in :ids and o.status = :from")
+    int updateStatus(Collection<Long> ids, OrderStatus from, OrderStatus to, LocalDateTime now);
 
-public interface OrderRepository extends JpaRepository<Order, Long> {
 }
@@ -0,0 +1,18 @@
+package com.jc.order_service.repository;
+
+import com.jc.order_service.dto.OrderCursor;
+import com.jc.order_service.dto.OrderFilter;
+import com.jc.order_service.model.Order;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface OrderRepositoryCustom {
+
+    List<Order> insertAll(List<Order> orders);
+
+    List<Order> findPage(OrderFilter filter, OrderCursor after, int limit);
+
+    void forEach(OrderFilter filter, Consumer<Order> action);
+
+}
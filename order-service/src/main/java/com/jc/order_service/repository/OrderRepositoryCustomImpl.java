@@ -0,0 +1,143 @@
+package com.jc.order_service.repository;
+
+import com.jc.order_service.dto.OrderCursor;
+import com.jc.order_service.dto.OrderFilter;
+import com.jc.order_service.entity.OrderStatus;
+import com.jc.order_service.model.Order;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+// Orders use IDENTITY ids, which disables Hibernate insert batching, so bulk inserts go through JDBC directly.
+public class OrderRepositoryCustomImpl implements OrderRepositoryCustom {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO orders (user_id, product_id, quantity, status, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+    private final int batchSize;
+    private final int exportFetchSize;
+
+    public OrderRepositoryCustomImpl(JdbcTemplate jdbcTemplate,
+                                     EntityManager entityManager,
+                                     @Value("${order.batch.insert-batch-size:200}") int batchSize,
+                                     @Value("${order.listing.export-fetch-size:500}") int exportFetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+        this.batchSize = batchSize;
+        this.exportFetchSize = exportFetchSize;
+    }
+
+    @Override
+    @Transactional
+    public List<Order> insertAll(List<Order> orders) {
+        LocalDateTime now = LocalDateTime.now();
+        for (Order order : orders) {
+            order.setCreatedAt(now);
+            order.setUpdatedAt(now);
+            if (order.getStatus() == null) {
+                order.setStatus(OrderStatus.PENDING);
+            }
+        }
+        for (int from = 0; from < orders.size(); from += batchSize) {
+            insertChunk(orders.subList(from, Math.min(from + batchSize, orders.size())));
+        }
+        return orders;
+    }
+
+    private void insertChunk(List<Order> chunk) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_SQL, new String[]{"id"}), new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Order order = chunk.get(i);
+                ps.setLong(1, order.getUserId());
+                ps.setLong(2, order.getProductId());
+                ps.setInt(3, order.getQuantity());
+                ps.setString(4, order.getStatus().name());
+                ps.setTimestamp(5, Timestamp.valueOf(order.getCreatedAt()));
+                ps.setTimestamp(6, Timestamp.valueOf(order.getUpdatedAt()));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return chunk.size();
+            }
+        }, keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < chunk.size(); i++) {
+            chunk.get(i).setId(((Number) keys.get(i).values().iterator().next()).longValue());
+        }
+    }
+    // Keyset pagination: newest first, continuing strictly after the cursor so deep pages cost the same as the first.
+    @Override
+    @Transactional(readOnly = true)
+    public List<Order> findPage(OrderFilter filter, OrderCursor after, int limit) {
+        return query(filter, after).setMaxResults(limit).getResultList();
+    }
+
+    // Streams the matching orders with a bounded fetch size and detaches each one once handled, so neither the
+    // JDBC result set nor the persistence context grows with the table.
+    @Override
+    @Transactional(readOnly = true)
+    public void forEach(OrderFilter filter, Consumer<Order> action) {
+        TypedQuery<Order> query = query(filter, null)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, exportFetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true);
+        try (Stream<Order> orders = query.getResultStream()) {
+            orders.forEach(order -> {
+                action.accept(order);
+                entityManager.detach(order);
+            });
+        }
+    }
+
+    private TypedQuery<Order> query(OrderFilter filter, OrderCursor after) {
+        StringBuilder jpql = new StringBuilder("select o from Order o where 1 = 1");
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        if (filter.userId() != null) {
+            jpql.append(" and o.userId = :userId");
+            parameters.put("userId", filter.userId());
+        }
+        if (filter.status() != null) {
+            jpql.append(" and o.status = :status");
+            parameters.put("status", filter.status());
+        }
+        if (filter.from() != null) {
+            jpql.append(" and o.createdAt >= :from");
+            parameters.put("from", filter.from());
+        }
+        if (filter.to() != null) {
+            jpql.append(" and o.createdAt < :to");
+            parameters.put("to", filter.to());
+        }
+        if (after != null) {
+            jpql.append(" and (o.createdAt < :createdAt or (o.createdAt = :createdAt and o.id < :id))");
+            parameters.put("createdAt", after.createdAt());
+            parameters.put("id", after.id());
+        }
+        jpql.append(" order by o.createdAt desc, o.id desc");
+        TypedQuery<Order> query = entityManager.createQuery(jpql.toString(), Order.class);
+        parameters.forEach(query::setParameter);
+        return query;
+    }
+
+}
@@ -0,0 +1,18 @@
+package com.jc.order_service.repository;
+
+import com.jc.order_service.model.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    List<OutboxEvent> findByNextAttemptAtLessThanEqualOrderByIdAsc(LocalDateTime now, Pageable pageable);
+
+    @Query("select count(e) > 0 from OutboxEvent e where :orderId member of e.orderIds")
+    boolean existsForOrder(Long orderId);
+
+}
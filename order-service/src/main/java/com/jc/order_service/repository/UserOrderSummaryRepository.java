@@ -0,0 +1,32 @@
+package com.jc.order_service.repository;
+
+import com.jc.order_service.model.UserOrderSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface UserOrderSummaryRepository extends JpaRepository<UserOrderSummary, Long> {
+
+    @Modifying
+    @Query("update UserOrderSummary s set s.orderCount = s.orderCount + :count, s.totalQuantity = s.totalQuantity + :quantity, " +
+            "s.lastOrderAt = case when s.lastOrderAt is null or s.lastOrderAt < :lastOrderAt then :lastOrderAt else s.lastOrderAt end " +
+            "where s.userId = :userId")
+    int addOrders(Long userId, long count, long quantity, LocalDateTime lastOrderAt);
+
+    @Modifying
+    @Query("update UserOrderSummary s set s.orderCount = s.orderCount + :count, s.totalQuantity = s.totalQuantity + :quantity " +
+            "where s.userId = :userId")
+    int adjust(Long userId, long count, long quantity);
+
+    @Modifying
+    @Query("update UserOrderSummary s set s.lastOrderAt = :lastOrderAt where s.userId = :userId")
+    int setLastOrderAt(Long userId, LocalDateTime lastOrderAt);
+
+    @Query("select new com.jc.order_service.model.UserOrderSummary(o.userId, count(o), sum(o.quantity), max(o.createdAt)) " +
+            "from Order o group by o.userId")
+    List<UserOrderSummary> aggregateFromOrders();
+
+}
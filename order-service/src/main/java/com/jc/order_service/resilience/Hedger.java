@@ -0,0 +1,168 @@
+package com.jc.order_service.resilience;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+// Hedged reads: when the first call has not answered within the recent latency percentile, a second identical call is
+// sent and whichever succeeds first wins. The hedge goes back through the load balancer, whose round-robin position is
+// shared by all requests, so it usually but not always lands on a different instance than the first call.
+// Only use for idempotent calls. Hedges draw on a budget so a slow downstream does not get double the traffic.
+public class Hedger {
+
+    private final ExecutorService executor;
+    private final RetryBudget budget;
+    private final double percentile;
+    private final long minDelayNanos;
+    private final long maxDelayNanos;
+    private final long[] samples;
+    private final boolean enabled;
+    private final Counter issued;
+    private final Counter won;
+    private int next;
+    private volatile long delayNanos;
+
+    public Hedger(String name, MeterRegistry meterRegistry, ExecutorService executor, RetryBudget budget, boolean enabled,
+                  double percentile, Duration minDelay, Duration maxDelay, int window) {
+        this.executor = executor;
+        this.enabled = enabled;
+        this.budget = budget;
+        this.percentile = percentile;
+        this.minDelayNanos = minDelay.toNanos();
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.samples = new long[window];
+        this.delayNanos = maxDelayNanos;
+        this.issued = Counter.builder("downstream.hedge.issued").tag("name", name).register(meterRegistry);
+        this.won = Counter.builder("downstream.hedge.won").tag("name", name).register(meterRegistry);
+        Gauge.builder("downstream.hedge.delay", this, hedger -> hedger.getDelay().toMillis()).tag("name", name)
+                .baseUnit("milliseconds").register(meterRegistry);
+    }
+
+    public <T> T execute(Supplier<T> call) {
+        if (!enabled) {
+            return call.get();
+        }
+        CompletableFuture<T> primary = CompletableFuture.supplyAsync(timed(call), executor);
+        CompletableFuture<T> winner = primary;
+        try {
+            primary.get(delayNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException ex) {
+            if (budget.tryWithdraw()) {
+                issued.increment();
+                Supplier<T> timedHedge = timed(call);
+                // Counted before the hedge completes, so the count is in place by the time the caller sees the result.
+                CompletableFuture<T> hedge = CompletableFuture.supplyAsync(() -> {
+                    T value = timedHedge.get();
+                    if (!primary.isDone()) {
+                        won.increment();
+                    }
+                    return value;
+                }, executor);
+                winner = firstSuccessful(primary, hedge);
+            }
+        } catch (ExecutionException ex) {
+            // The primary failed before the hedge delay; join below rethrows its exception.
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            primary.cancel(true);
+            throw new CompletionException(ex);
+        }
+        try {
+            return winner.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (ex.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    // Reactive variant with the same rules and no thread held while waiting: the hedge is subscribed once the delay
+    // passes without an answer (and only if the primary has not already failed), the first value wins and the other
+    // attempt is cancelled. A failed hedge defers to the primary, whose error is the one reported.
+    public <T> Mono<T> execute(Mono<T> call) {
+        if (!enabled) {
+            return call;
+        }
+        return Mono.defer(() -> {
+            Sinks.One<Boolean> primaryFailed = Sinks.one();
+            Mono<T> primary = timed(call).doOnError(ex -> primaryFailed.tryEmitValue(true));
+            Mono<T> hedge = Mono.delay(getDelay())
+                    .takeUntilOther(primaryFailed.asMono())
+                    .filter(tick -> budget.tryWithdraw())
+                    .flatMap(tick -> {
+                        issued.increment();
+                        return timed(call).doOnNext(value -> won.increment());
+                    })
+                    .onErrorResume(ex -> Mono.empty());
+            return Flux.mergeDelayError(2, primary, hedge).next();
+        });
+    }
+
+    public Duration getDelay() {
+        return Duration.ofNanos(delayNanos);
+    }
+
+    private <T> Supplier<T> timed(Supplier<T> call) {
+        return () -> {
+            long start = System.nanoTime();
+            T value = call.get();
+            record(System.nanoTime() - start);
+            return value;
+        };
+    }
+
+    private <T> Mono<T> timed(Mono<T> call) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return call.doOnNext(value -> record(System.nanoTime() - start));
+        });
+    }
+
+    // The delay is recomputed once per window of successful calls; until the first window fills, max-delay applies.
+    private synchronized void record(long latencyNanos) {
+        samples[next] = latencyNanos;
+        next = (next + 1) % samples.length;
+        if (next == 0) {
+            long[] sorted = samples.clone();
+            Arrays.sort(sorted);
+            long value = sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)];
+            delayNanos = Math.clamp(value, minDelayNanos, maxDelayNanos);
+        }
+    }
+
+    private static <T> CompletableFuture<T> firstSuccessful(CompletableFuture<T> first, CompletableFuture<T> second) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        first.whenComplete((value, ex) -> settle(result, value, ex, second));
+        second.whenComplete((value, ex) -> settle(result, value, ex, first));
+        result.whenComplete((value, ex) -> {
+            first.cancel(true);
+            second.cancel(true);
+        });
+        return result;
+    }
+
+    private static <T> void settle(CompletableFuture<T> result, T value, Throwable ex, CompletableFuture<T> other) {
+        if (ex == null) {
+            result.complete(value);
+        } else if (other.isCompletedExceptionally()) {
+            result.completeExceptionally(ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex);
+        }
+    }
+}
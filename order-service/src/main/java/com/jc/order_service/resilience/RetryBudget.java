@@ -0,0 +1,41 @@
+package com.jc.order_service.resilience;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Token bucket that caps extra attempts at a fraction of regular traffic: every call deposits ratio tokens and every
+// retry or hedge withdraws a whole one. When the downstream is failing broadly the bucket drains and extra attempts
+// stop, instead of multiplying the load on it.
+public class RetryBudget {
+
+    private final double ratio;
+    private final double maxTokens;
+    private final Counter exhausted;
+    private double tokens;
+
+    public RetryBudget(String name, MeterRegistry meterRegistry, double ratio, double maxTokens) {
+        this.ratio = ratio;
+        this.maxTokens = maxTokens;
+        this.tokens = maxTokens;
+        this.exhausted = Counter.builder("downstream.retry.budget.exhausted").tag("name", name).register(meterRegistry);
+        Gauge.builder("downstream.retry.budget.tokens", this, RetryBudget::getTokens).tag("name", name).register(meterRegistry);
+    }
+
+    public synchronized void deposit() {
+        tokens = Math.min(maxTokens, tokens + ratio);
+    }
+
+    public synchronized boolean tryWithdraw() {
+        if (tokens < 1) {
+            exhausted.increment();
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+
+    public synchronized double getTokens() {
+        return tokens;
+    }
+}
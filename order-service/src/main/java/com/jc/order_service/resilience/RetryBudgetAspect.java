@@ -0,0 +1,46 @@
+package com.jc.order_service.resilience;
+
+import io.github.resilience4j.retry.annotation.Retry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+// Earns retry budget once per logical call. It sits outside the Resilience4j retry aspect, so the attempts that
+// aspect repeats do not deposit again; a reactive call deposits when it is subscribed, not for each resubscription.
+// The order is one step outside the retry aspect's default of LOWEST_PRECEDENCE - 4.
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 5)
+public class RetryBudgetAspect {
+
+    private final Map<String, RetryBudget> budgets;
+
+    public RetryBudgetAspect(@Qualifier("userServiceRetryBudget") RetryBudget userServiceRetryBudget,
+                             @Qualifier("productServiceRetryBudget") RetryBudget productServiceRetryBudget) {
+        this.budgets = Map.of(
+                "userServiceRetry", userServiceRetryBudget,
+                "productServiceRetry", productServiceRetryBudget);
+    }
+
+    @Around("@annotation(retry)")
+    public Object deposit(ProceedingJoinPoint joinPoint, Retry retry) throws Throwable {
+        RetryBudget budget = budgets.get(retry.name());
+        if (budget == null) {
+            return joinPoint.proceed();
+        }
+        if (Mono.class.isAssignableFrom(((MethodSignature) joinPoint.getSignature()).getReturnType())) {
+            Mono<?> result = (Mono<?>) joinPoint.proceed();
+            return result.doOnSubscribe(subscription -> budget.deposit());
+        }
+        budget.deposit();
+        return joinPoint.proceed();
+    }
+}
@@ -1,17 +1,41 @@
 package com.jc.order_service.service;
 
+import com.jc.order_service.dto.OrderFilter;
+import com.jc.order_service.dto.OrderPage;
+import com.jc.order_service.dto.OrderResult;
 import com.jc.order_service.model.Order;
+import com.jc.order_service.model.UserOrderSummary;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface OrderService {
     Order createOrder(Order order);
 
+    OrderResult createOrder(Order order, String idempotencyKey);
+
+    List<Order> createOrders(List<Order> orders);
+
+    // Split of createOrder for callers that check user and product themselves (the reactive path): a known key is
+    // answered by findReplay before any lookup, and createValidatedOrder only persists.
+    Optional<OrderResult> findReplay(Order order, String idempotencyKey);
+
+    OrderResult createValidatedOrder(Order order, String idempotencyKey);
+
+    Order submitOrder(Order order);
+
+    OrderResult submitOrder(Order order, String idempotencyKey);
+
     Order getOrderById(Long id);
 
-    List<Order> getAllOrders();
+    OrderPage getOrders(OrderFilter filter, String cursor, int limit);
+
+    void exportOrders(OrderFilter filter, Consumer<Order> sink);
 
     Order updateOrder(Long id, Order order);
 
     void deleteOrder(Long id);
+
+    UserOrderSummary getOrderSummary(Long userId);
 }
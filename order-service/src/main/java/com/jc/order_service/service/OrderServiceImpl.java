@@ -1,34 +1,292 @@
 package com.jc.order_service.service;
 
+import com.jc.order_service.cache.ProductCache;
+import com.jc.order_service.cache.UserCache;
+import com.jc.order_service.client.ProductClient;
+import com.jc.order_service.client.UserClient;
+import com.jc.order_service.dto.OrderCursor;
+import com.jc.order_service.dto.OrderFilter;
+import com.jc.order_service.dto.OrderPage;
+import com.jc.order_service.dto.OrderResult;
+import com.jc.order_service.entity.OrderStatus;
+import com.jc.order_service.exception.ExternalServiceException;
+import com.jc.order_service.exception.IdempotencyKeyConflictException;
 import com.jc.order_service.exception.InsufficientStockException;
+import com.jc.order_service.exception.InvalidIdempotencyKeyException;
+import com.jc.order_service.exception.OrderArchivedException;
 import com.jc.order_service.exception.OrderNotFoundException;
 import com.jc.order_service.exception.ProductNotFoundException;
 import com.jc.order_service.exception.UserNotFoundException;
+import com.jc.order_service.idempotency.IdempotencyIndex;
+import com.jc.order_service.model.ArchivedOrder;
+import com.jc.order_service.model.IdempotencyKey;
 import com.jc.order_service.model.Order;
+import com.jc.order_service.model.OutboxEvent;
+import com.jc.order_service.model.UserOrderSummary;
+import com.jc.order_service.queue.OrderWorkQueue;
+import com.jc.order_service.repository.ArchivedOrderRepository;
+import com.jc.order_service.repository.IdempotencyKeyRepository;
 import com.jc.order_service.repository.OrderRepository;
+import com.jc.order_service.repository.OutboxEventRepository;
+import com.jc.order_service.summary.OrderSummaryProjector;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class OrderServiceImpl implements OrderService {
 
+    private static final Logger logger = LoggerFactory.getLogger(OrderServiceImpl.class);
+
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+
     private final OrderRepository orderRepository;
-    private final UserService userService;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final OutboxEventRepository outboxEventRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final UserCache userCache;
+    private final ProductCache productCache;
     private final ProductService productService;
+    private final ExecutorService downstreamExecutor;
+    private final OrderWorkQueue orderWorkQueue;
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final IdempotencyIndex idempotencyIndex;
+    private final OrderSummaryProjector orderSummaryProjector;
+    private final Timer saveTimer;
+    private final Timer batchInsertTimer;
+    private final Duration reservationTtl;
+    private final boolean asyncEnabled;
 
-    public OrderServiceImpl(OrderRepository orderRepository, UserService userService, ProductService productService) {
+    public OrderServiceImpl(OrderRepository orderRepository, ArchivedOrderRepository archivedOrderRepository,
+                            OutboxEventRepository outboxEventRepository,
+                            TransactionTemplate transactionTemplate, UserCache userCache, ProductCache productCache,
+                            ProductService productService,
+                            @Qualifier("downstreamExecutor") ExecutorService downstreamExecutor,
+                            OrderWorkQueue orderWorkQueue, IdempotencyKeyRepository idempotencyKeyRepository,
+                            IdempotencyIndex idempotencyIndex, OrderSummaryProjector orderSummaryProjector, MeterRegistry meterRegistry,
+                            @Value("${order.reservation.ttl:15m}") Duration reservationTtl,
+                            @Value("${order.async.enabled:false}") boolean asyncEnabled) {
         this.orderRepository = orderRepository;
-        this.userService = userService;
+        this.archivedOrderRepository = archivedOrderRepository;
+        this.outboxEventRepository = outboxEventRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.userCache = userCache;
+        this.productCache = productCache;
         this.productService = productService;
+        this.downstreamExecutor = downstreamExecutor;
+        this.orderWorkQueue = orderWorkQueue;
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.idempotencyIndex = idempotencyIndex;
+        this.orderSummaryProjector = orderSummaryProjector;
+        this.saveTimer = dbTimer(meterRegistry, "save");
+        this.batchInsertTimer = dbTimer(meterRegistry, "insert_batch");
+        this.reservationTtl = reservationTtl;
+        this.asyncEnabled = asyncEnabled;
     }
 
 
     @Override
     public Order createOrder(Order order) {
+        return placeOrder(order, null);
+    }
+
+    @Override
+    public OrderResult createOrder(Order order, String idempotencyKey) {
+        return idempotently(order, idempotencyKey, () -> placeOrder(order, idempotencyKey));
+    }
+
+    @Override
+    public Order submitOrder(Order order) {
+        return enqueueOrder(order, null);
+    }
+
+    @Override
+    public OrderResult submitOrder(Order order, String idempotencyKey) {
+        return idempotently(order, idempotencyKey, () -> enqueueOrder(order, idempotencyKey));
+    }
+
+    @Override
+    public Optional<OrderResult> findReplay(Order order, String idempotencyKey) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            throw new InvalidIdempotencyKeyException(MAX_IDEMPOTENCY_KEY_LENGTH);
+        }
+        return idempotencyIndex.find(idempotencyKey).map(key -> replay(key, order, idempotencyKey));
+    }
+
+    @Override
+    public OrderResult createValidatedOrder(Order order, String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return new OrderResult(persistOrder(order, null), false);
+        }
+        return createOnce(order, idempotencyKey, () -> persistOrder(order, idempotencyKey));
+    }
+
+    private Order placeOrder(Order order, String idempotencyKey) {
+        validateOrder(order);
+        return persistOrder(order, idempotencyKey);
+    }
+
+    // Only the stock outbox relay moves an order out of PENDING; a status sent by the client is not kept.
+    private Order persistOrder(Order order, String idempotencyKey) {
+        order.setStatus(OrderStatus.PENDING);
+        String reservationId = reserveStock(order.getProductId(), order.getQuantity());
+        try {
+            orderSummaryProjector.ensureRows(List.of(order.getUserId()));
+            return transactionTemplate.execute(tx -> {
+                Order savedOrder = save(order, idempotencyKey);
+                outboxEventRepository.save(OutboxEvent.stockConfirmation(savedOrder.getProductId(), savedOrder.getQuantity(), reservationId, Set.of(savedOrder.getId())));
+                return savedOrder;
+            });
+        } catch (RuntimeException ex) {
+            releaseQuietly(List.of(reservationId));
+            throw ex;
+        }
+    }
+
+    // The reservation is the stock check: product-service takes the stock atomically or refuses. The order rows and
+    // the event that confirms the reservation are written afterwards; if that fails the reservation is handed back,
+    // and if this process dies in between it simply expires.
+    private String reserveStock(Long productId, int quantity) {
+        String reservationId = "order-" + UUID.randomUUID();
+        productService.reserveStock(productId, quantity, reservationTtl, reservationId);
+        return reservationId;
+    }
+
+    private void releaseQuietly(Collection<String> reservationIds) {
+        for (String reservationId : reservationIds) {
+            try {
+                productService.releaseReservation(reservationId);
+            } catch (RuntimeException ex) {
+                logger.warn("Could not release stock reservation {}, leaving it to expire: {}", reservationId, ex.getMessage());
+            }
+        }
+    }
+
+    private Order enqueueOrder(Order order, String idempotencyKey) {
+        order.setStatus(OrderStatus.PENDING);
+        return orderWorkQueue.submit(() -> {
+            orderSummaryProjector.ensureRows(List.of(order.getUserId()));
+            return transactionTemplate.execute(tx -> save(order, idempotencyKey));
+        }, this::processPendingOrder);
+    }
+
+    // The key row is written in the order's transaction: a concurrent duplicate fails on the unique constraint and
+    // rolls back its own order instead of creating a second one.
+    private Order save(Order order, String idempotencyKey) {
+        Order savedOrder = saveTimer.record(() -> orderRepository.save(order));
+        orderSummaryProjector.ordersAdded(List.of(savedOrder));
+        if (idempotencyKey != null) {
+            idempotencyKeyRepository.save(IdempotencyKey.of(idempotencyKey, savedOrder));
+        }
+        return savedOrder;
+    }
+
+    // A known key (in memory or in the table) is answered from the stored order without calling user-service or
+    // product-service again; createOnce only has to handle a concurrent first request winning the key insert.
+    private OrderResult idempotently(Order order, String idempotencyKey, Supplier<Order> create) {
+        return findReplay(order, idempotencyKey).orElseGet(() -> createOnce(order, idempotencyKey, create));
+    }
+
+    private OrderResult createOnce(Order order, String idempotencyKey, Supplier<Order> create) {
+        Order created;
+        try {
+            created = create.get();
+        } catch (DataIntegrityViolationException ex) {
+            IdempotencyKey winner = idempotencyIndex.find(idempotencyKey).orElseThrow(() -> ex);
+            return replay(winner, order, idempotencyKey);
+        }
+        idempotencyIndex.remember(IdempotencyKey.of(idempotencyKey, created));
+        return new OrderResult(created, false);
+    }
+
+    private OrderResult replay(IdempotencyKey key, Order order, String idempotencyKey) {
+        if (!key.getRequestFingerprint().equals(IdempotencyKey.fingerprint(order))) {
+            throw new IdempotencyKeyConflictException(idempotencyKey);
+        }
+        idempotencyIndex.recordReplay();
+        return new OrderResult(getOrderById(key.getOrderId()), true);
+    }
+
+    void processPendingOrder(Long id) {
+        Order order = orderRepository.findById(id).orElse(null);
+        if (order == null || order.getStatus() != OrderStatus.PENDING || outboxEventRepository.existsForOrder(id)) {
+            return;
+        }
+        String reservationId;
+        try {
+            validateOrder(order);
+            reservationId = reserveStock(order.getProductId(), order.getQuantity());
+        } catch (RuntimeException ex) {
+            logger.warn("Order {} failed: {}", id, ex.getMessage());
+            order.setStatus(OrderStatus.FAILED);
+            orderRepository.save(order);
+            return;
+        }
+        // The stock relay moves the order to CONFIRMED or FAILED once product-service has answered.
+        try {
+            outboxEventRepository.save(OutboxEvent.stockConfirmation(order.getProductId(), order.getQuantity(), reservationId, Set.of(id)));
+        } catch (RuntimeException ex) {
+            releaseQuietly(List.of(reservationId));
+            throw ex;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverPendingOrders() {
+        if (!asyncEnabled) {
+            return;
+        }
+        List<Long> pending = orderRepository.findIdsByStatusWithoutStockEvent(OrderStatus.PENDING);
+        if (pending.isEmpty()) {
+            return;
+        }
+        logger.info("Recovering {} pending orders", pending.size());
+        Thread.ofVirtual().name("order-recovery").start(() -> {
+            try {
+                for (Long id : pending) {
+                    orderWorkQueue.resubmit(id, this::processPendingOrder);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
 
-        var user = userService.getUser(order.getUserId());
-        var product = productService.getProduct(order.getProductId());
+    private void validateOrder(Order order) {
+        CompletableFuture<UserClient.UserResponse> userLookup =
+                CompletableFuture.supplyAsync(() -> userCache.getUser(order.getUserId()), downstreamExecutor);
+        CompletableFuture<ProductClient.ProductResponse> productLookup =
+                CompletableFuture.supplyAsync(() -> productCache.getProduct(order.getProductId()), downstreamExecutor);
+        awaitLookups(List.of(userLookup, productLookup));
+
+        var user = userLookup.join();
+        var product = productLookup.join();
 
         if (user == null) {
             throw new UserNotFoundException(order.getUserId());
@@ -37,37 +295,164 @@ public class OrderServiceImpl implements OrderService {
             throw new ProductNotFoundException(order.getProductId());
         }
 
+        // The cached stock figure is only a pre-check; product-service has the final say when the stock is reserved.
         if (order.getQuantity() > product.stock()) {
             throw new InsufficientStockException(order.getProductId(), order.getQuantity(), product.stock());
         }
+    }
 
-        Order savedOrder = orderRepository.save(order);
-        productService.decrementStock(product.id(), order.getQuantity());
-        return savedOrder;
+    @Override
+    public List<Order> createOrders(List<Order> orders) {
+
+        Map<Long, CompletableFuture<UserClient.UserResponse>> userLookups = orders.stream()
+                .map(Order::getUserId)
+                .distinct()
+                .collect(Collectors.toMap(Function.identity(),
+                        userId -> CompletableFuture.supplyAsync(() -> userCache.getUser(userId), downstreamExecutor)));
+        Map<Long, CompletableFuture<ProductClient.ProductResponse>> productLookups = orders.stream()
+                .map(Order::getProductId)
+                .distinct()
+                .collect(Collectors.toMap(Function.identity(),
+                        productId -> CompletableFuture.supplyAsync(() -> productCache.getProduct(productId), downstreamExecutor)));
+        awaitLookups(Stream.concat(userLookups.values().stream(), productLookups.values().stream()).toList());
+
+        userLookups.forEach((userId, lookup) -> {
+            if (lookup.join() == null) {
+                throw new UserNotFoundException(userId);
+            }
+        });
+
+        // Sorted by product id so stock rows are always touched in the same order.
+        Map<Long, Integer> quantityByProduct = orders.stream()
+                .collect(Collectors.groupingBy(Order::getProductId, TreeMap::new, Collectors.summingInt(Order::getQuantity)));
+        quantityByProduct.forEach((productId, quantity) -> {
+            var product = productLookups.get(productId).join();
+            if (product == null) {
+                throw new ProductNotFoundException(productId);
+            }
+            if (quantity > product.stock()) {
+                throw new InsufficientStockException(productId, quantity, product.stock());
+            }
+        });
+
+        // One reservation per product; if any of them is refused, the ones already taken are handed back.
+        Map<Long, String> reservations = new TreeMap<>();
+        try {
+            quantityByProduct.forEach((productId, quantity) -> reservations.put(productId, reserveStock(productId, quantity)));
+            orders.forEach(order -> order.setStatus(OrderStatus.PENDING));
+            orderSummaryProjector.ensureRows(orders.stream().map(Order::getUserId).collect(Collectors.toSet()));
+            return transactionTemplate.execute(tx -> {
+                List<Order> savedOrders = batchInsertTimer.record(() -> orderRepository.insertAll(orders));
+                orderSummaryProjector.ordersAdded(savedOrders);
+                Map<Long, Set<Long>> orderIdsByProduct = savedOrders.stream()
+                        .collect(Collectors.groupingBy(Order::getProductId, Collectors.mapping(Order::getId, Collectors.toSet())));
+                outboxEventRepository.saveAll(quantityByProduct.entrySet().stream()
+                        .map(entry -> OutboxEvent.stockConfirmation(entry.getKey(), entry.getValue(),
+                                reservations.get(entry.getKey()), orderIdsByProduct.get(entry.getKey())))
+                        .toList());
+                return savedOrders;
+            });
+        } catch (RuntimeException ex) {
+            releaseQuietly(reservations.values());
+            throw ex;
+        }
     }
 
     @Override
     public Order getOrderById(Long id) {
-        return orderRepository.findById(id).orElseThrow(() -> new OrderNotFoundException(id));
+        return orderRepository.findById(id)
+                .or(() -> archivedOrderRepository.findById(id).map(ArchivedOrder::toOrder))
+                .orElseThrow(() -> new OrderNotFoundException(id));
+    }
+
+    // Archived orders are history: they can be read through getOrderById but not changed.
+    private Order getLiveOrder(Long id) {
+        return orderRepository.findById(id).orElseThrow(() -> archivedOrderRepository.existsById(id)
+                ? new OrderArchivedException(id) : new OrderNotFoundException(id));
+    }
+
+    // One extra row is read to tell whether another page exists without a count query.
+    @Override
+    public OrderPage getOrders(OrderFilter filter, String cursor, int limit) {
+        OrderCursor after = cursor == null || cursor.isBlank() ? null : OrderCursor.decode(cursor);
+        List<Order> orders = orderRepository.findPage(filter, after, limit + 1);
+        if (orders.size() <= limit) {
+            return new OrderPage(orders, null);
+        }
+        List<Order> page = orders.subList(0, limit);
+        return new OrderPage(page, OrderCursor.of(page.get(limit - 1)).encode());
     }
 
     @Override
-    public List<Order> getAllOrders() {
-        return orderRepository.findAll();
+    public void exportOrders(OrderFilter filter, Consumer<Order> sink) {
+        orderRepository.forEach(filter, sink);
     }
 
     @Override
     public Order updateOrder(Long id, Order order) {
-        Order existing = getOrderById(id);
-        existing.setQuantity(order.getQuantity());
-        existing.setStatus(order.getStatus());
-        return orderRepository.save(existing);
+        return transactionTemplate.execute(tx -> {
+            Order existing = getLiveOrder(id);
+            int quantityDelta = order.getQuantity() - existing.getQuantity();
+            existing.setQuantity(order.getQuantity());
+            existing.setStatus(order.getStatus());
+            Order saved = orderRepository.save(existing);
+            orderSummaryProjector.quantityChanged(existing.getUserId(), quantityDelta);
+            return saved;
+        });
     }
 
     @Override
     public void deleteOrder(Long id) {
-        Order existing = getOrderById(id);
-        orderRepository.delete(existing);
+        transactionTemplate.executeWithoutResult(tx -> {
+            Order existing = getLiveOrder(id);
+            orderRepository.delete(existing);
+            orderSummaryProjector.orderRemoved(existing);
+        });
+    }
+
+    @Override
+    public UserOrderSummary getOrderSummary(Long userId) {
+        return orderSummaryProjector.get(userId);
+    }
+
+    // Lookups run concurrently; the first failure cancels the rest so the caller does not wait for them.
+    private static void awaitLookups(List<? extends CompletableFuture<?>> lookups) {
+        for (CompletableFuture<?> lookup : lookups) {
+            lookup.whenComplete((result, ex) -> {
+                if (ex != null) {
+                    for (CompletableFuture<?> other : lookups) {
+                        other.cancel(true);
+                    }
+                }
+            });
+        }
+        try {
+            CompletableFuture.allOf(lookups.toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException | CancellationException ignored) {
+            for (CompletableFuture<?> lookup : lookups) {
+                if (lookup.isCompletedExceptionally() && !lookup.isCancelled()) {
+                    throw unwrap(lookup.exceptionNow());
+                }
+            }
+            throw new ExternalServiceException("Downstream lookups were cancelled");
+        }
+    }
+
+    private static RuntimeException unwrap(Throwable t) {
+        Throwable cause = t instanceof CompletionException && t.getCause() != null ? t.getCause() : t;
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new ExternalServiceException("Downstream lookup failed: " + cause.getMessage());
+    }
 
+    private static Timer dbTimer(MeterRegistry meterRegistry, String operation) {
+        return Timer.builder("orders.db.write")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
     }
 }
@@ -1,9 +1,19 @@
 package com.jc.order_service.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.jc.order_service.client.ProductClient;
+import com.jc.order_service.exception.ConcurrencyLimitExceededException;
 import com.jc.order_service.exception.ExternalServiceException;
+import com.jc.order_service.exception.InsufficientStockException;
 import com.jc.order_service.exception.ProductNotFoundException;
+import com.jc.order_service.exception.ReservationReleasedException;
+import com.jc.order_service.limit.AdaptiveConcurrencyLimiter;
+import com.jc.order_service.metrics.DownstreamMetrics;
+import com.jc.order_service.resilience.Hedger;
 import feign.FeignException;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.annotation.Bulkhead;
 import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.ratelimiter.RequestNotPermitted;
@@ -11,47 +21,118 @@ import io.github.resilience4j.ratelimiter.annotation.RateLimiter;
 import io.github.resilience4j.retry.annotation.Retry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestParam;
 
 import java.net.ConnectException;
+import java.time.Duration;
 
 @Service
 public class ProductService {
 
     private final ProductClient productClient;
 
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    private final Hedger hedger;
+
+    private final DownstreamMetrics metrics;
+
+    // Last successfully fetched product, served for reads while the circuit breaker is open.
+    private final Cache<Long, ProductClient.ProductResponse> snapshots;
+
     private static final Logger logger = LoggerFactory.getLogger(ProductService.class);
 
-    public ProductService(ProductClient productClient) {
+    public ProductService(ProductClient productClient,
+                          @Qualifier("productServiceLimiter") AdaptiveConcurrencyLimiter limiter,
+                          @Qualifier("productServiceHedger") Hedger hedger,
+                          DownstreamMetrics metrics,
+                          @Value("${order.cache.product.snapshot-max-size:10000}") long snapshotMaxSize,
+                          @Value("${order.cache.product.snapshot-ttl:1h}") Duration snapshotTtl) {
         this.productClient = productClient;
+        this.limiter = limiter;
+        this.hedger = hedger;
+        this.metrics = metrics;
+        this.snapshots = Caffeine.newBuilder()
+                .maximumSize(snapshotMaxSize)
+                .expireAfterWrite(snapshotTtl)
+                .build();
     }
 
-    @CircuitBreaker(name = "productService", fallbackMethod = "productServiceFallback")
+    // Fallbacks sit on the outermost aspect (Retry) so retries see the raw downstream exception.
+    @CircuitBreaker(name = "productService")
     @Retry(name = "productServiceRetry", fallbackMethod = "productServiceFallback")
-    @RateLimiter(name = "productServiceRL", fallbackMethod = "productServiceFallback")
+    @RateLimiter(name = "productServiceRL")
+    @Bulkhead(name = "productServiceBH")
     public ProductClient.ProductResponse getProduct(Long productId) {
         logger.info("Fetching product details from product service");
-        return productClient.getProductById(productId);
+        ProductClient.ProductResponse product = hedger.execute(() -> limiter.execute(() -> metrics.time("product", "getProductById", () -> productClient.getProductById(productId))));
+        if (product != null) {
+            snapshots.put(productId, product);
+        }
+        return product;
     }
 
-    @CircuitBreaker(name = "productService", fallbackMethod = "productStockServiceFallback")
+    // Not hedged: a decrement is only safe to repeat through the retry path, which reuses the same idempotency key.
+    @CircuitBreaker(name = "productService")
     @Retry(name = "productServiceRetry", fallbackMethod = "productStockServiceFallback")
-    @RateLimiter(name = "productServiceRL", fallbackMethod = "productStockServiceFallback")
-    public void decrementStock(@PathVariable Long id, @RequestParam int quantity) {
+    @RateLimiter(name = "productServiceRL")
+    @Bulkhead(name = "productServiceBH")
+    public void decrementStock(@PathVariable Long id, @RequestParam int quantity, String idempotencyKey) {
         logger.info("Updating stock of the product in product service");
-        productClient.decrementStock(id, quantity);
+        limiter.run(() -> metrics.run("product", "decrementStock", () -> productClient.decrementStock(id, quantity, idempotencyKey)));
+    }
+
+    // Safe to retry like the decrement: product-service answers a repeated reservation id with the original reservation.
+    @CircuitBreaker(name = "productService")
+    @Retry(name = "productServiceRetry", fallbackMethod = "reserveStockFallback")
+    @RateLimiter(name = "productServiceRL")
+    @Bulkhead(name = "productServiceBH")
+    public ProductClient.ReservationResponse reserveStock(Long productId, int quantity, Duration ttl, String reservationId) {
+        logger.info("Reserving stock of the product in product service");
+        return limiter.execute(() -> metrics.time("product", "reserveStock", () -> productClient.reserveStock(productId, quantity, ttl.toSeconds(), reservationId)));
+    }
+
+    @CircuitBreaker(name = "productService")
+    @Retry(name = "productServiceRetry", fallbackMethod = "confirmReservationFallback")
+    @RateLimiter(name = "productServiceRL")
+    @Bulkhead(name = "productServiceBH")
+    public void confirmReservation(String reservationId) {
+        logger.info("Confirming stock reservation in product service");
+        limiter.run(() -> metrics.run("product", "confirmReservation", () -> productClient.confirmReservation(reservationId)));
+    }
+
+    @CircuitBreaker(name = "productService")
+    @Retry(name = "productServiceRetry", fallbackMethod = "releaseReservationFallback")
+    @RateLimiter(name = "productServiceRL")
+    @Bulkhead(name = "productServiceBH")
+    public void releaseReservation(String reservationId) {
+        logger.info("Releasing stock reservation in product service");
+        limiter.run(() -> metrics.run("product", "releaseReservation", () -> productClient.releaseReservation(reservationId)));
     }
 
     public ProductClient.ProductResponse productServiceFallback(Long productId, Throwable t) {
         logger.error("Error from product service: {}. Running fallback method", t.getMessage());
+        metrics.fallback("product", "getProduct", t);
         switch (t) {
             case FeignException.NotFound notFound -> throw new ProductNotFoundException(productId);
-            case CallNotPermittedException callNotPermittedException ->
+            case CallNotPermittedException callNotPermittedException -> {
+                ProductClient.ProductResponse snapshot = snapshots.getIfPresent(productId);
+                if (snapshot == null) {
                     throw new ExternalServiceException("Product service: The circuit breaker is open: " + t.getMessage());
+                }
+                logger.warn("Product service circuit breaker is open, serving last known snapshot of product {}", productId);
+                return snapshot;
+            }
             case RequestNotPermitted requestNotPermitted ->
                     throw new ExternalServiceException("Product service: The rate limit has been exceeded: " + t.getMessage());
+            case BulkheadFullException bulkheadFullException ->
+                    throw new ExternalServiceException("Product service: The bulkhead is full: " + t.getMessage());
+            case ConcurrencyLimitExceededException limitExceededException ->
+                    throw new ExternalServiceException("Product service: The concurrency limit has been exceeded: " + t.getMessage());
             case ConnectException connectException ->
                     throw new ExternalServiceException("Product service: Cannot connect to user service: " + t.getMessage());
             default ->
@@ -59,18 +140,68 @@ public class ProductService {
         }
     }
 
-    public ProductClient.ProductResponse productStockServiceFallback(@PathVariable Long productId, @RequestParam int quantity, Throwable t) {
+    public void productStockServiceFallback(@PathVariable Long productId, @RequestParam int quantity, String idempotencyKey, Throwable t) {
         logger.error("Error while decrementing stock from product service: {}. Running fallback method", t.getMessage());
+        metrics.fallback("product", "decrementStock", t);
         switch (t) {
             case FeignException.NotFound notFound -> throw new ProductNotFoundException(productId);
+            case FeignException.Conflict conflict -> throw new InsufficientStockException(productId, quantity);
             case CallNotPermittedException callNotPermittedException ->
                     throw new ExternalServiceException("Product service: The circuit breaker is open: " + t.getMessage());
             case RequestNotPermitted requestNotPermitted ->
                     throw new ExternalServiceException("Product service: The rate limit has been exceeded: " + t.getMessage());
+            case BulkheadFullException bulkheadFullException ->
+                    throw new ExternalServiceException("Product service: The bulkhead is full: " + t.getMessage());
+            case ConcurrencyLimitExceededException limitExceededException ->
+                    throw new ExternalServiceException("Product service: The concurrency limit has been exceeded: " + t.getMessage());
             case ConnectException connectException ->
                     throw new ExternalServiceException("Product service: Cannot connect to user service: " + t.getMessage());
             default ->
                     throw new ExternalServiceException("Product service: An unexpected error occurred during call:  " + t.getMessage());
         }
     }
+
+    public ProductClient.ReservationResponse reserveStockFallback(Long productId, int quantity, Duration ttl, String reservationId, Throwable t) {
+        logger.error("Error while reserving stock from product service: {}. Running fallback method", t.getMessage());
+        metrics.fallback("product", "reserveStock", t);
+        switch (t) {
+            case FeignException.NotFound notFound -> throw new ProductNotFoundException(productId);
+            case FeignException.Conflict conflict -> throw new InsufficientStockException(productId, quantity);
+            default -> throw unavailable(t);
+        }
+    }
+
+    // A reservation that is gone or no longer held is final; everything else is worth another attempt later.
+    public void confirmReservationFallback(String reservationId, Throwable t) {
+        logger.error("Error while confirming stock reservation {} in product service: {}. Running fallback method", reservationId, t.getMessage());
+        metrics.fallback("product", "confirmReservation", t);
+        switch (t) {
+            case FeignException.NotFound notFound -> throw new ReservationReleasedException(reservationId);
+            case FeignException.Conflict conflict -> throw new ReservationReleasedException(reservationId);
+            default -> throw unavailable(t);
+        }
+    }
+
+    public void releaseReservationFallback(String reservationId, Throwable t) {
+        logger.error("Error while releasing stock reservation {} in product service: {}. Running fallback method", reservationId, t.getMessage());
+        metrics.fallback("product", "releaseReservation", t);
+        throw unavailable(t);
+    }
+
+    private static ExternalServiceException unavailable(Throwable t) {
+        return switch (t) {
+            case CallNotPermittedException callNotPermittedException ->
+                    new ExternalServiceException("Product service: The circuit breaker is open: " + t.getMessage());
+            case RequestNotPermitted requestNotPermitted ->
+                    new ExternalServiceException("Product service: The rate limit has been exceeded: " + t.getMessage());
+            case BulkheadFullException bulkheadFullException ->
+                    new ExternalServiceException("Product service: The bulkhead is full: " + t.getMessage());
+            case ConcurrencyLimitExceededException limitExceededException ->
+                    new ExternalServiceException("Product service: The concurrency limit has been exceeded: " + t.getMessage());
+            case ConnectException connectException ->
+                    new ExternalServiceException("Product service: Cannot connect to product service: " + t.getMessage());
+            default ->
+                    new ExternalServiceException("Product service: An unexpected error occurred during call:  " + t.getMessage());
+        };
+    }
 }
@@ -0,0 +1,68 @@
+package com.jc.order_service.service;
+
+import com.jc.order_service.cache.ProductCache;
+import com.jc.order_service.cache.UserCache;
+import com.jc.order_service.client.ProductClient;
+import com.jc.order_service.client.UserClient;
+import com.jc.order_service.dto.OrderResult;
+import com.jc.order_service.exception.InsufficientStockException;
+import com.jc.order_service.exception.ProductNotFoundException;
+import com.jc.order_service.exception.UserNotFoundException;
+import com.jc.order_service.model.Order;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+// Order creation without a blocked thread per request: user and product are checked through the same near-caches as
+// the blocking path (over WebClient on a miss) and only the idempotency lookup and the order transaction run on the
+// blocking scheduler.
+@Service
+@ConditionalOnProperty(name = "order.reactive.enabled", havingValue = "true")
+public class ReactiveOrderService {
+
+    private final OrderService orderService;
+    private final ReactiveUserService userService;
+    private final ReactiveProductService productService;
+    private final UserCache userCache;
+    private final ProductCache productCache;
+    private final Scheduler blockingScheduler;
+
+    public ReactiveOrderService(OrderService orderService,
+                                ReactiveUserService userService,
+                                ReactiveProductService productService,
+                                UserCache userCache,
+                                ProductCache productCache,
+                                @Qualifier("blockingScheduler") Scheduler blockingScheduler) {
+        this.orderService = orderService;
+        this.userService = userService;
+        this.productService = productService;
+        this.userCache = userCache;
+        this.productCache = productCache;
+        this.blockingScheduler = blockingScheduler;
+    }
+
+    public Mono<OrderResult> createOrder(Order order, String idempotencyKey) {
+        Mono<OrderResult> create = Mono.defer(() -> validateOrder(order))
+                .then(Mono.fromCallable(() -> orderService.createValidatedOrder(order, idempotencyKey)).subscribeOn(blockingScheduler));
+        if (idempotencyKey == null) {
+            return create;
+        }
+        return Mono.fromCallable(() -> orderService.findReplay(order, idempotencyKey))
+                .subscribeOn(blockingScheduler)
+                .flatMap(replay -> replay.map(Mono::just).orElseGet(() -> create));
+    }
+
+    private Mono<Void> validateOrder(Order order) {
+        Mono<UserClient.UserResponse> user = userCache.getUser(order.getUserId(), userService::getUser)
+                .switchIfEmpty(Mono.error(() -> new UserNotFoundException(order.getUserId())));
+        Mono<ProductClient.ProductResponse> product = productCache.getProduct(order.getProductId(), productService::getProduct)
+                .switchIfEmpty(Mono.error(() -> new ProductNotFoundException(order.getProductId())));
+        return Mono.zip(user, product)
+                .flatMap(found -> order.getQuantity() > found.getT2().stock()
+                        ? Mono.error(new InsufficientStockException(order.getProductId(), order.getQuantity(), found.getT2().stock()))
+                        : Mono.empty());
+    }
+
+}
@@ -0,0 +1,82 @@
+package com.jc.order_service.service;
+
+import com.jc.order_service.client.ReactiveProductClient;
+import com.jc.order_service.client.ProductClient;
+import com.jc.order_service.exception.ConcurrencyLimitExceededException;
+import com.jc.order_service.exception.ExternalServiceException;
+import com.jc.order_service.exception.ProductNotFoundException;
+import com.jc.order_service.limit.AdaptiveConcurrencyLimiter;
+import com.jc.order_service.metrics.DownstreamMetrics;
+import com.jc.order_service.resilience.Hedger;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.annotation.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import io.github.resilience4j.ratelimiter.RequestNotPermitted;
+import io.github.resilience4j.ratelimiter.annotation.RateLimiter;
+import io.github.resilience4j.retry.annotation.Retry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+// Same resilience4j instances, limiter, hedger and retry budget as ProductService, so breaker state, rate limit,
+// bulkhead, concurrency limit and hedge delay are shared between the blocking and the reactive path. The near-cache
+// and single-flight layer sit in front of this class in ProductCache, as they do for ProductService.
+@Service
+@ConditionalOnProperty(name = "order.reactive.enabled", havingValue = "true")
+public class ReactiveProductService {
+
+    private final ReactiveProductClient productClient;
+
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    private final Hedger hedger;
+
+    private final DownstreamMetrics metrics;
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveProductService.class);
+
+    public ReactiveProductService(ReactiveProductClient productClient,
+                               @Qualifier("productServiceLimiter") AdaptiveConcurrencyLimiter limiter,
+                               @Qualifier("productServiceHedger") Hedger hedger,
+                               DownstreamMetrics metrics) {
+        this.productClient = productClient;
+        this.limiter = limiter;
+        this.hedger = hedger;
+        this.metrics = metrics;
+    }
+
+    @CircuitBreaker(name = "productService")
+    @Retry(name = "productServiceRetry", fallbackMethod = "productServiceFallback")
+    @RateLimiter(name = "productServiceRL")
+    @Bulkhead(name = "productServiceBH")
+    public Mono<ProductClient.ProductResponse> getProduct(Long productId) {
+        return Mono.defer(() -> hedger.execute(limiter.execute(metrics.time("product", "getProductById", productClient.getProductById(productId)))));
+    }
+
+    public Mono<ProductClient.ProductResponse> productServiceFallback(Long productId, Throwable t) {
+        logger.error("Error from product service: {}. Running fallback method", t.getMessage());
+        metrics.fallback("product", "getProduct", t);
+        return Mono.error(switch (t) {
+            case WebClientResponseException.NotFound notFound -> new ProductNotFoundException(productId);
+            case CallNotPermittedException callNotPermittedException ->
+                    new ExternalServiceException("Product service: The circuit breaker is open: " + t.getMessage());
+            case RequestNotPermitted requestNotPermitted ->
+                    new ExternalServiceException("Product service: The rate limit has been exceeded: " + t.getMessage());
+            case BulkheadFullException bulkheadFullException ->
+                    new ExternalServiceException("Product service: The bulkhead is full: " + t.getMessage());
+            case ConcurrencyLimitExceededException limitExceededException ->
+                    new ExternalServiceException("Product service: The concurrency limit has been exceeded: " + t.getMessage());
+            case WebClientRequestException requestException ->
+                    new ExternalServiceException("Product service: Cannot connect to product service: " + t.getMessage());
+            default ->
+                    new ExternalServiceException("Product service: An unexpected error occurred during call:  " + t.getMessage());
+        });
+    }
+
+}
@@ -0,0 +1,82 @@
+package com.jc.order_service.service;
+
+import com.jc.order_service.client.ReactiveUserClient;
+import com.jc.order_service.client.UserClient;
+import com.jc.order_service.exception.ConcurrencyLimitExceededException;
+import com.jc.order_service.exception.ExternalServiceException;
+import com.jc.order_service.exception.UserNotFoundException;
+import com.jc.order_service.limit.AdaptiveConcurrencyLimiter;
+import com.jc.order_service.metrics.DownstreamMetrics;
+import com.jc.order_service.resilience.Hedger;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.annotation.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import io.github.resilience4j.ratelimiter.RequestNotPermitted;
+import io.github.resilience4j.ratelimiter.annotation.RateLimiter;
+import io.github.resilience4j.retry.annotation.Retry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+// Same resilience4j instances, limiter, hedger and retry budget as UserService, so breaker state, rate limit,
+// bulkhead, concurrency limit and hedge delay are shared between the blocking and the reactive path. The near-cache
+// and single-flight layer sit in front of this class in UserCache, as they do for UserService.
+@Service
+@ConditionalOnProperty(name = "order.reactive.enabled", havingValue = "true")
+public class ReactiveUserService {
+
+    private final ReactiveUserClient userClient;
+
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    private final Hedger hedger;
+
+    private final DownstreamMetrics metrics;
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveUserService.class);
+
+    public ReactiveUserService(ReactiveUserClient userClient,
+                               @Qualifier("userServiceLimiter") AdaptiveConcurrencyLimiter limiter,
+                               @Qualifier("userServiceHedger") Hedger hedger,
+                               DownstreamMetrics metrics) {
+        this.userClient = userClient;
+        this.limiter = limiter;
+        this.hedger = hedger;
+        this.metrics = metrics;
+    }
+
+    @CircuitBreaker(name = "userService")
+    @Retry(name = "userServiceRetry", fallbackMethod = "userServiceFallback")
+    @RateLimiter(name = "userServiceRL")
+    @Bulkhead(name = "userServiceBH")
+    public Mono<UserClient.UserResponse> getUser(Long userId) {
+        return Mono.defer(() -> hedger.execute(limiter.execute(metrics.time("user", "getUserById", userClient.getUserById(userId)))));
+    }
+
+    public Mono<UserClient.UserResponse> userServiceFallback(Long userId, Throwable t) {
+        logger.error("Error from user service: {}, Running Fallback method", t.getMessage());
+        metrics.fallback("user", "getUser", t);
+        return Mono.error(switch (t) {
+            case WebClientResponseException.NotFound notFound -> new UserNotFoundException(userId);
+            case CallNotPermittedException callNotPermittedException ->
+                    new ExternalServiceException("User service: The circuit breaker is open: " + t.getMessage());
+            case RequestNotPermitted requestNotPermitted ->
+                    new ExternalServiceException("User service: The rate limit has been exceeded: " + t.getMessage());
+            case BulkheadFullException bulkheadFullException ->
+                    new ExternalServiceException("User service: The bulkhead is full: " + t.getMessage());
+            case ConcurrencyLimitExceededException limitExceededException ->
+                    new ExternalServiceException("User service: The concurrency limit has been exceeded: " + t.getMessage());
+            case WebClientRequestException requestException ->
+                    new ExternalServiceException("User service: Cannot connect to user service: " + t.getMessage());
+            default ->
+                    new ExternalServiceException("User service: An unexpected error occurred during call:  " + t.getMessage());
+        });
+    }
+
+}
@@ -1,9 +1,15 @@
 package com.jc.order_service.service;
 
 import com.jc.order_service.client.UserClient;
+import com.jc.order_service.exception.ConcurrencyLimitExceededException;
 import com.jc.order_service.exception.ExternalServiceException;
 import com.jc.order_service.exception.UserNotFoundException;
+import com.jc.order_service.limit.AdaptiveConcurrencyLimiter;
+import com.jc.order_service.metrics.DownstreamMetrics;
+import com.jc.order_service.resilience.Hedger;
 import feign.FeignException;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.annotation.Bulkhead;
 import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.ratelimiter.RequestNotPermitted;
@@ -11,6 +17,7 @@ import io.github.resilience4j.ratelimiter.annotation.RateLimiter;
 import io.github.resilience4j.retry.annotation.Retry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
 import java.net.ConnectException;
@@ -20,28 +27,47 @@ public class UserService {
 
     private final UserClient userClient;
 
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    private final Hedger hedger;
+
+    private final DownstreamMetrics metrics;
+
     private static final Logger logger = LoggerFactory.getLogger(UserService.class);
 
-    public UserService(UserClient userClient) {
+    public UserService(UserClient userClient,
+                       @Qualifier("userServiceLimiter") AdaptiveConcurrencyLimiter limiter,
+                       @Qualifier("userServiceHedger") Hedger hedger,
+                       DownstreamMetrics metrics) {
         this.userClient = userClient;
+        this.limiter = limiter;
+        this.hedger = hedger;
+        this.metrics = metrics;
     }
 
-    @CircuitBreaker(name = "userService", fallbackMethod = "userServiceFallback")
+    // The fallback sits on the outermost aspect (Retry) so retries see the raw downstream exception.
+    @CircuitBreaker(name = "userService")
     @Retry(name = "userServiceRetry", fallbackMethod = "userServiceFallback")
-    @RateLimiter(name = "userServiceRL", fallbackMethod = "userServiceFallback")
+    @RateLimiter(name = "userServiceRL")
+    @Bulkhead(name = "userServiceBH")
     public UserClient.UserResponse getUser(Long userId) {
         logger.info("Fetching user details from user service");
-        return userClient.getUserById(userId);
+        return hedger.execute(() -> limiter.execute(() -> metrics.time("user", "getUserById", () -> userClient.getUserById(userId))));
     }
 
     public UserClient.UserResponse userServiceFallback(Long userId, Throwable t) {
         logger.error("Error from user service: {}, Running Fallback method", t.getMessage());
+        metrics.fallback("user", "getUser", t);
         switch (t) {
             case FeignException.NotFound notFound -> throw new UserNotFoundException(userId);
             case CallNotPermittedException callNotPermittedException ->
                     throw new ExternalServiceException("User service: The circuit breaker is open: " + t.getMessage());
             case RequestNotPermitted requestNotPermitted ->
                     throw new ExternalServiceException("User service: The rate limit has been exceeded: " + t.getMessage());
+            case BulkheadFullException bulkheadFullException ->
+                    throw new ExternalServiceException("User service: The bulkhead is full: " + t.getMessage());
+            case ConcurrencyLimitExceededException limitExceededException ->
+                    throw new ExternalServiceException("User service: The concurrency limit has been exceeded: " + t.getMessage());
             case ConnectException connectException ->
                     throw new ExternalServiceException("User service: Cannot connect to user service: " + t.getMessage());
             default ->
@@ -0,0 +1,23 @@
+package com.jc.order_service.summary;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+@Component
+@Endpoint(id = "ordersummary")
+public class OrderSummaryEndpoint {
+
+    private final OrderSummaryProjector projector;
+
+    public OrderSummaryEndpoint(OrderSummaryProjector projector) {
+        this.projector = projector;
+    }
+
+    @WriteOperation
+    public Map<String, Object> rebuild() {
+        return Map.of("users", projector.rebuild());
+    }
+}
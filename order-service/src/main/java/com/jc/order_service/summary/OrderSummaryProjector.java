@@ -0,0 +1,138 @@
+package com.jc.order_service.summary;
+
+import com.jc.order_service.model.Order;
+import com.jc.order_service.model.UserOrderSummary;
+import com.jc.order_service.repository.ArchivedOrderRepository;
+import com.jc.order_service.repository.OrderRepository;
+import com.jc.order_service.repository.UserOrderSummaryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// Keeps user_order_summaries in step with the orders table. Updates are relative (count + n) and must run inside the
+// transaction that writes the orders, so the summary commits or rolls back with them. Rows of new users are created
+// by ensureRows before that transaction starts.
+@Component
+public class OrderSummaryProjector {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderSummaryProjector.class);
+
+    private final UserOrderSummaryRepository summaryRepository;
+    private final OrderRepository orderRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean rebuildOnStartup;
+
+    public OrderSummaryProjector(UserOrderSummaryRepository summaryRepository,
+                                 OrderRepository orderRepository,
+                                 ArchivedOrderRepository archivedOrderRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${order.summary.rebuild-on-startup:false}") boolean rebuildOnStartup) {
+        this.summaryRepository = summaryRepository;
+        this.orderRepository = orderRepository;
+        this.archivedOrderRepository = archivedOrderRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.rebuildOnStartup = rebuildOnStartup;
+    }
+
+    public UserOrderSummary get(Long userId) {
+        return summaryRepository.findById(userId).orElseGet(() -> UserOrderSummary.empty(userId));
+    }
+
+    // Creates the missing rows, each in its own short transaction. Called before the order transaction starts, so the
+    // insert never needs a second connection while the order's is held, and a concurrent first order of the same user
+    // finds the row in place instead of failing on its primary key.
+    public void ensureRows(Collection<Long> userIds) {
+        for (Long userId : userIds) {
+            if (!summaryRepository.existsById(userId)) {
+                createRow(userId);
+            }
+        }
+    }
+
+    public void ordersAdded(List<Order> orders) {
+        Map<Long, List<Order>> byUser = orders.stream().collect(Collectors.groupingBy(Order::getUserId));
+        byUser.forEach((userId, userOrders) -> {
+            long quantity = userOrders.stream().mapToLong(Order::getQuantity).sum();
+            LocalDateTime lastOrderAt = userOrders.stream().map(Order::getCreatedAt).max(LocalDateTime::compareTo).orElseThrow();
+            if (summaryRepository.addOrders(userId, userOrders.size(), quantity, lastOrderAt) == 0) {
+                // The row was not ensured, or a rebuild dropped it in between: written in the order's transaction.
+                summaryRepository.save(new UserOrderSummary(userId, (long) userOrders.size(), quantity, lastOrderAt));
+            }
+        });
+    }
+
+    public void quantityChanged(Long userId, int delta) {
+        if (delta != 0) {
+            summaryRepository.adjust(userId, 0, delta);
+        }
+    }
+
+    // Called after the order row is deleted, so the last order time is recomputed from what remains, archive included.
+    public void orderRemoved(Order order) {
+        Long userId = order.getUserId();
+        summaryRepository.adjust(userId, -1, -order.getQuantity());
+        summaryRepository.setLastOrderAt(userId, latest(orderRepository.findLastCreatedAtByUserId(userId),
+                archivedOrderRepository.findLastCreatedAtByUserId(userId)));
+    }
+
+    // Recomputes every summary from the orders and orders_archive tables; archiving moves rows but does not change
+    // the summaries. Orders written while the rebuild runs may be counted twice or not at all, so run it when traffic
+    // is low.
+    public int rebuild() {
+        List<UserOrderSummary> summaries = transactionTemplate.execute(tx -> {
+            Map<Long, UserOrderSummary> byUser = new HashMap<>();
+            summaryRepository.aggregateFromOrders().forEach(summary -> byUser.put(summary.getUserId(), summary));
+            archivedOrderRepository.aggregateByUser().forEach(archived -> byUser.merge(archived.getUserId(), archived, OrderSummaryProjector::combine));
+            summaryRepository.deleteAllInBatch();
+            return summaryRepository.saveAll(byUser.values());
+        });
+        logger.info("Rebuilt order summaries for {} users", summaries.size());
+        return summaries.size();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfConfigured() {
+        if (rebuildOnStartup) {
+            rebuild();
+        }
+    }
+
+    private static UserOrderSummary combine(UserOrderSummary live, UserOrderSummary archived) {
+        return new UserOrderSummary(live.getUserId(), live.getOrderCount() + archived.getOrderCount(),
+                live.getTotalQuantity() + archived.getTotalQuantity(), latest(live.getLastOrderAt(), archived.getLastOrderAt()));
+    }
+
+    private static LocalDateTime latest(LocalDateTime first, LocalDateTime second) {
+        if (first == null || second == null) {
+            return first == null ? second : first;
+        }
+        return first.isAfter(second) ? first : second;
+    }
+
+    // If another order got there first the primary key rejects the insert.
+    private void createRow(Long userId) {
+        try {
+            transactionTemplate.executeWithoutResult(tx -> {
+                if (!summaryRepository.existsById(userId)) {
+                    summaryRepository.saveAndFlush(UserOrderSummary.empty(userId));
+                }
+            });
+        } catch (DataIntegrityViolationException ex) {
+            logger.debug("Summary row for user {} created concurrently", userId);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.jc.order_service.archive;
+
+import com.jc.order_service.entity.OrderStatus;
+import com.jc.order_service.model.ArchivedOrder;
+import com.jc.order_service.model.Order;
+import com.jc.order_service.repository.ArchivedOrderRepository;
+import com.jc.order_service.repository.OrderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Not transactional: every archive batch commits on its own, as it does in production.
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class OrderArchiverTest {
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @AfterEach
+    void cleanUp() {
+        orderRepository.deleteAllInBatch();
+        archivedOrderRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void shouldMoveOldTerminalOrdersInBatches() {
+        List<Order> saved = orderRepository.insertAll(List.of(
+                Order.builder().userId(1L).productId(10L).quantity(1).status(OrderStatus.DELIVERED).build(),
+                Order.builder().userId(1L).productId(11L).quantity(2).status(OrderStatus.CANCELLED).build(),
+                Order.builder().userId(2L).productId(12L).quantity(3).status(OrderStatus.FAILED).build(),
+                Order.builder().userId(2L).productId(13L).quantity(4).status(OrderStatus.SHIPPED).build(),
+                Order.builder().userId(3L).productId(14L).quantity(5).status(OrderStatus.DELIVERED).build()));
+        LocalDateTime old = LocalDateTime.now().minusDays(30);
+        for (Order order : saved.subList(0, 4)) {
+            jdbcTemplate.update("UPDATE orders SET created_at = ? WHERE id = ?", old, order.getId());
+        }
+
+        long moved = archiver(2).archive();
+
+        assertEquals(3, moved);
+        assertEquals(List.of(saved.get(3).getId(), saved.get(4).getId()),
+                orderRepository.findAll().stream().map(Order::getId).sorted().toList());
+        ArchivedOrder archived = archivedOrderRepository.findById(saved.get(1).getId()).orElseThrow();
+        assertEquals(OrderStatus.CANCELLED, archived.getStatus());
+        assertEquals(2, archived.getQuantity());
+        assertNotNull(archived.getArchivedAt());
+        assertEquals(3, meterRegistry.get("orders.archive.moved").counter().count());
+        assertEquals(2, meterRegistry.get("orders.archive.batches").counter().count());
+        assertEquals(0, meterRegistry.get("orders.archive.backlog").gauge().value());
+    }
+
+    @Test
+    void shouldResumeWhereAnEarlierRunStopped() {
+        List<Order> saved = orderRepository.insertAll(List.of(
+                Order.builder().userId(1L).productId(10L).quantity(1).status(OrderStatus.DELIVERED).build(),
+                Order.builder().userId(1L).productId(11L).quantity(1).status(OrderStatus.DELIVERED).build(),
+                Order.builder().userId(1L).productId(12L).quantity(1).status(OrderStatus.DELIVERED).build()));
+        jdbcTemplate.update("UPDATE orders SET created_at = ?", LocalDateTime.now().minusDays(30));
+        OrderArchiver archiver = new OrderArchiver(orderRepository, archivedOrderRepository, new TransactionTemplate(transactionManager),
+                meterRegistry, true, Duration.ofDays(7), 2, Duration.ZERO, 1, Duration.ofMinutes(1));
+
+        assertEquals(2, archiver.archive());
+        assertEquals(1, meterRegistry.get("orders.archive.backlog").gauge().value());
+        assertEquals(1, archiver.archive());
+
+        assertEquals(0, orderRepository.count());
+        assertTrue(archivedOrderRepository.existsById(saved.get(2).getId()));
+    }
+
+    @Test
+    void shouldSkipBatchLockedByAnotherRun() throws Exception {
+        List<Order> saved = orderRepository.insertAll(List.of(
+                Order.builder().userId(1L).productId(10L).quantity(1).status(OrderStatus.DELIVERED).build(),
+                Order.builder().userId(1L).productId(11L).quantity(1).status(OrderStatus.DELIVERED).build(),
+                Order.builder().userId(1L).productId(12L).quantity(1).status(OrderStatus.DELIVERED).build()));
+        jdbcTemplate.update("UPDATE orders SET created_at = ?", LocalDateTime.now().minusDays(30));
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService otherInstance = Executors.newSingleThreadExecutor();
+        // Stands in for another instance's batch. H2 locks every row a sorted FOR UPDATE reads, so one row is locked by id.
+        Future<List<Long>> held = otherInstance.submit(() -> new TransactionTemplate(transactionManager).execute(tx -> {
+            List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM orders WHERE id = ? FOR UPDATE", Long.class, saved.get(0).getId());
+            locked.countDown();
+            await(release);
+            return ids;
+        }));
+        try {
+            assertTrue(locked.await(5, TimeUnit.SECONDS));
+
+            assertEquals(2, archiver(10).archive());
+        } finally {
+            release.countDown();
+            otherInstance.shutdown();
+        }
+
+        assertEquals(List.of(saved.get(0).getId()), held.get(5, TimeUnit.SECONDS));
+        assertEquals(List.of(saved.get(0).getId()), orderRepository.findAll().stream().map(Order::getId).toList());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private OrderArchiver archiver(int batchSize) {
+        return new OrderArchiver(orderRepository, archivedOrderRepository, new TransactionTemplate(transactionManager),
+                meterRegistry, true, Duration.ofDays(7), batchSize, Duration.ZERO, 100, Duration.ofMinutes(1));
+    }
+}
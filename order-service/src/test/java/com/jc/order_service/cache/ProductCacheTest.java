@@ -0,0 +1,141 @@
+package com.jc.order_service.cache;
+
+import com.jc.order_service.client.ProductClient;
+import com.jc.order_service.exception.ExternalServiceException;
+import com.jc.order_service.service.ProductService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ProductCacheTest {
+
+    @Mock
+    private ProductService productService;
+
+    private ExecutorService executor;
+
+    private final ProductClient.ProductResponse product = new ProductClient.ProductResponse(1L, "Laptop", 10.0, "laptop", 10);
+    private final ProductClient.ProductResponse restocked = new ProductClient.ProductResponse(1L, "Laptop", 10.0, "laptop", 50);
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldServeRepeatedReadsFromCache() {
+        ProductCache productCache = cache(Duration.ofMinutes(1), Duration.ofSeconds(45));
+        when(productService.getProduct(1L)).thenReturn(product);
+
+        assertEquals(product, productCache.getProduct(1L));
+        assertEquals(product, productCache.getProduct(1L));
+
+        verify(productService, times(1)).getProduct(1L);
+    }
+
+    @Test
+    void shouldServeStaleSnapshotWhileRefreshingInBackground() {
+        ProductCache productCache = cache(Duration.ofMinutes(1), Duration.ofMillis(50));
+        CountDownLatch staleServed = new CountDownLatch(1);
+        when(productService.getProduct(1L)).thenReturn(product).thenAnswer(invocation -> {
+            staleServed.await(2, TimeUnit.SECONDS);
+            return restocked;
+        });
+
+        productCache.getProduct(1L);
+        sleep(Duration.ofMillis(100));
+
+        assertEquals(product, productCache.getProduct(1L));
+        staleServed.countDown();
+        verify(productService, timeout(2000).times(2)).getProduct(1L);
+        assertEquals(restocked, waitFor(productCache, restocked));
+    }
+
+    @Test
+    void shouldKeepSnapshotWhenBackgroundRefreshFails() {
+        ProductCache productCache = cache(Duration.ofMinutes(1), Duration.ofMillis(50));
+        when(productService.getProduct(1L)).thenReturn(product).thenThrow(new ExternalServiceException("Product service down"));
+
+        productCache.getProduct(1L);
+        sleep(Duration.ofMillis(100));
+        productCache.getProduct(1L);
+        verify(productService, timeout(2000).times(2)).getProduct(1L);
+
+        assertEquals(product, productCache.getProduct(1L));
+    }
+
+    @Test
+    void shouldNotCacheMissingProducts() {
+        ProductCache productCache = cache(Duration.ofMinutes(1), Duration.ofSeconds(45));
+
+        assertNull(productCache.getProduct(2L));
+        assertNull(productCache.getProduct(2L));
+
+        verify(productService, times(2)).getProduct(2L);
+    }
+
+    @Test
+    void shouldCoalesceConcurrentLookupsWhenCachingIsDisabled() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ProductCache productCache = new ProductCache(productService, meterRegistry, executor, false, 100, Duration.ofMinutes(1), Duration.ofSeconds(45));
+        CountDownLatch release = new CountDownLatch(1);
+        when(productService.getProduct(1L)).thenAnswer(invocation -> {
+            release.await(2, TimeUnit.SECONDS);
+            return product;
+        });
+
+        List<Future<ProductClient.ProductResponse>> lookups = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            lookups.add(executor.submit(() -> productCache.getProduct(1L)));
+        }
+        for (int i = 0; i < 100 && meterRegistry.get("downstream.singleflight.calls").tag("result", "coalesced").counter().count() < 9; i++) {
+            sleep(Duration.ofMillis(10));
+        }
+        release.countDown();
+
+        for (Future<ProductClient.ProductResponse> lookup : lookups) {
+            assertEquals(product, lookup.get(2, TimeUnit.SECONDS));
+        }
+        verify(productService, times(1)).getProduct(1L);
+    }
+
+    private ProductCache cache(Duration ttl, Duration refreshAfter) {
+        return new ProductCache(productService, new SimpleMeterRegistry(), executor, true, 100, ttl, refreshAfter);
+    }
+
+    private static ProductClient.ProductResponse waitFor(ProductCache productCache, ProductClient.ProductResponse expected) {
+        for (int i = 0; i < 100 && !expected.equals(productCache.getProduct(1L)); i++) {
+            sleep(Duration.ofMillis(20));
+        }
+        return productCache.getProduct(1L);
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.jc.order_service.cache;
+
+import com.jc.order_service.exception.ExternalServiceException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SingleFlightTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private SingleFlight<Long, String> singleFlight;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        singleFlight = new SingleFlight<>("product", meterRegistry);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldShareOneCallAmongConcurrentCallersForTheSameKey() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        Future<String> leader = executor.submit(() -> singleFlight.execute(1L, () -> {
+            calls.incrementAndGet();
+            await(release);
+            return "laptop";
+        }));
+        awaitInFlight(1);
+
+        List<Future<String>> followers = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            followers.add(executor.submit(() -> singleFlight.execute(1L, () -> "unexpected")));
+        }
+        awaitCount("coalesced", 5);
+        release.countDown();
+
+        assertEquals("laptop", leader.get(2, TimeUnit.SECONDS));
+        for (Future<String> follower : followers) {
+            assertEquals("laptop", follower.get(2, TimeUnit.SECONDS));
+        }
+        assertEquals(1, calls.get());
+        assertEquals(1.0, count("executed"));
+        assertEquals(0.0, meterRegistry.get("downstream.singleflight.in.flight").gauge().value());
+    }
+
+    @Test
+    void shouldShareTheLeadersException() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> leader = executor.submit(() -> singleFlight.execute(1L, () -> {
+            await(release);
+            throw new ExternalServiceException("Product service down");
+        }));
+        awaitInFlight(1);
+        Future<String> follower = executor.submit(() -> singleFlight.execute(1L, () -> "unexpected"));
+        awaitCount("coalesced", 1);
+        release.countDown();
+
+        ExecutionException leaderFailure = assertThrows(ExecutionException.class, () -> leader.get(2, TimeUnit.SECONDS));
+        ExecutionException followerFailure = assertThrows(ExecutionException.class, () -> follower.get(2, TimeUnit.SECONDS));
+        assertInstanceOf(ExternalServiceException.class, leaderFailure.getCause());
+        assertSame(leaderFailure.getCause(), followerFailure.getCause());
+    }
+
+    @Test
+    void shouldNotReuseCompletedCalls() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertEquals("1", singleFlight.execute(1L, () -> String.valueOf(calls.incrementAndGet())));
+        assertEquals("2", singleFlight.execute(1L, () -> String.valueOf(calls.incrementAndGet())));
+        assertEquals(0.0, count("coalesced"));
+    }
+
+    @Test
+    void shouldShareOneReactiveCallEvenIfTheFirstCallerCancels() {
+        AtomicInteger calls = new AtomicInteger();
+        Sinks.One<String> response = Sinks.one();
+        Mono<String> call = Mono.defer(() -> {
+            calls.incrementAndGet();
+            return response.asMono();
+        });
+
+        Disposable first = singleFlight.execute(1L, call).subscribe();
+        Mono<String> second = singleFlight.execute(1L, call);
+        String[] received = new String[1];
+        second.subscribe(value -> received[0] = value);
+        first.dispose();
+        response.tryEmitValue("laptop");
+
+        assertEquals("laptop", received[0]);
+        assertEquals(1, calls.get());
+        assertEquals(1.0, count("coalesced"));
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("downstream.singleflight.calls").tag("result", result).counter().count();
+    }
+
+    private void awaitInFlight(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (meterRegistry.get("downstream.singleflight.in.flight").gauge().value() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private void awaitCount(String result, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (count(result) < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(2, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.jc.order_service.cache;
+
+import com.jc.order_service.client.UserClient;
+import com.jc.order_service.exception.ExternalServiceException;
+import com.jc.order_service.exception.UserNotFoundException;
+import com.jc.order_service.service.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class UserCacheTest {
+
+    @Mock
+    private UserService userService;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private UserCache userCache;
+
+    private final UserClient.UserResponse user = new UserClient.UserResponse(1L, "John Doe", "john@example.com");
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        userCache = new UserCache(userService, meterRegistry, true, 100, Duration.ofMinutes(10), Duration.ofSeconds(30));
+    }
+
+    @Test
+    void shouldServeRepeatedLookupsFromCache() {
+        when(userService.getUser(1L)).thenReturn(user);
+
+        assertEquals(user, userCache.getUser(1L));
+        assertEquals(user, userCache.getUser(1L));
+
+        verify(userService, times(1)).getUser(1L);
+        assertEquals(1, userCache.stats().hitCount());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "userCache").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void shouldCacheUnknownUsers() {
+        when(userService.getUser(2L)).thenThrow(new UserNotFoundException(2L));
+
+        assertThrows(UserNotFoundException.class, () -> userCache.getUser(2L));
+        assertThrows(UserNotFoundException.class, () -> userCache.getUser(2L));
+
+        verify(userService, times(1)).getUser(2L);
+    }
+
+    @Test
+    void shouldNotCacheDownstreamFailures() {
+        when(userService.getUser(1L)).thenThrow(new ExternalServiceException("User service down")).thenReturn(user);
+
+        assertThrows(ExternalServiceException.class, () -> userCache.getUser(1L));
+        assertEquals(user, userCache.getUser(1L));
+    }
+
+    @Test
+    void shouldReloadAfterInvalidate() {
+        when(userService.getUser(1L)).thenReturn(user);
+
+        userCache.getUser(1L);
+        userCache.invalidate(1L);
+        userCache.getUser(1L);
+
+        verify(userService, times(2)).getUser(1L);
+    }
+
+    @Test
+    void shouldBypassCacheWhenDisabled() {
+        UserCache disabled = new UserCache(userService, meterRegistry, false, 100, Duration.ofMinutes(10), Duration.ofSeconds(30));
+        when(userService.getUser(1L)).thenReturn(user);
+
+        disabled.getUser(1L);
+        disabled.getUser(1L);
+
+        verify(userService, times(2)).getUser(1L);
+        assertEquals(0, disabled.size());
+    }
+}
@@ -0,0 +1,62 @@
+package com.jc.order_service.controller;
+
+import com.jc.order_service.entity.OrderStatus;
+import com.jc.order_service.exception.OrderQueueFullException;
+import com.jc.order_service.model.Order;
+import com.jc.order_service.service.OrderService;
+import com.jc.order_service.service.ProductService;
+import com.jc.order_service.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = OrderController.class, properties = "order.async.enabled=true")
+public class OrderControllerAsyncTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private OrderService orderService;
+
+    @MockitoBean
+    private UserService userService;
+
+    @MockitoBean
+    private ProductService productService;
+
+    @Test
+    void shouldAcceptOrderWhenAsyncModeIsEnabled() throws Exception {
+        Order pending = Order.builder().id(1L).userId(1L).productId(10L).quantity(2).status(OrderStatus.PENDING).build();
+        when(orderService.submitOrder(any(Order.class))).thenReturn(pending);
+
+        mockMvc.perform(post("/orders")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"userId\":1,\"productId\":10,\"quantity\":2}"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.status").value("PENDING"));
+        verify(orderService, never()).createOrder(any(Order.class));
+    }
+
+    @Test
+    void shouldReturn503WhenOrderQueueIsFull() throws Exception {
+        when(orderService.submitOrder(any(Order.class))).thenThrow(new OrderQueueFullException());
+
+        mockMvc.perform(post("/orders")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"userId\":1,\"productId\":10,\"quantity\":2}"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.error").value("Order queue full"));
+    }
+}
@@ -2,11 +2,17 @@ package com.jc.order_service.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.jc.order_service.client.ProductClient;
+import com.jc.order_service.dto.OrderFilter;
+import com.jc.order_service.dto.OrderPage;
+import com.jc.order_service.dto.OrderResult;
 import com.jc.order_service.entity.OrderStatus;
 import com.jc.order_service.exception.ExternalServiceException;
+import com.jc.order_service.exception.IdempotencyKeyConflictException;
 import com.jc.order_service.exception.InsufficientStockException;
+import com.jc.order_service.exception.InvalidCursorException;
 import com.jc.order_service.exception.OrderNotFoundException;
 import com.jc.order_service.model.Order;
+import com.jc.order_service.model.UserOrderSummary;
 import com.jc.order_service.service.OrderService;
 import com.jc.order_service.service.ProductService;
 import com.jc.order_service.service.UserService;
@@ -17,14 +23,25 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(OrderController.class)
@@ -98,6 +115,39 @@ public class OrderControllerTest {
                 .andExpect(jsonPath("$.quantity").value(2));
     }
 
+    @Test
+    void shouldCreateOrdersInBatch() throws Exception {
+        Order first = Order.builder().id(1L).userId(1L).productId(10L).quantity(2).status(OrderStatus.PENDING).build();
+        Order second = Order.builder().id(2L).userId(2L).productId(10L).quantity(1).status(OrderStatus.PENDING).build();
+        when(orderService.createOrders(anyList())).thenReturn(List.of(first, second));
+
+        mockMvc.perform(post("/orders/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"orders\":[{\"userId\":1,\"productId\":10,\"quantity\":2},{\"userId\":2,\"productId\":10,\"quantity\":1}]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].id").value(2));
+    }
+
+    @Test
+    void shouldRejectBatchWithInvalidOrder() throws Exception {
+        mockMvc.perform(post("/orders/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"orders\":[{\"userId\":1,\"productId\":10,\"quantity\":0}]}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Validation failed"));
+    }
+
+    @Test
+    void shouldGetOrderSummary() throws Exception {
+        when(orderService.getOrderSummary(1L)).thenReturn(new UserOrderSummary(1L, 2L, 5L, LocalDateTime.of(2025, 1, 1, 12, 0)));
+
+        mockMvc.perform(get("/orders/summary/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orderCount").value(2))
+                .andExpect(jsonPath("$.totalQuantity").value(5));
+    }
+
     @Test
     void shouldGetOrderById() throws Exception {
         Order order = Order.builder()
@@ -114,6 +164,32 @@ public class OrderControllerTest {
                 .andExpect(jsonPath("$.id").value(1));
     }
 
+    @Test
+    void shouldReplayOrderForRepeatedIdempotencyKey() throws Exception {
+        Order order = Order.builder().id(1L).userId(2L).productId(3L).quantity(3).status(OrderStatus.PENDING).build();
+        when(orderService.createOrder(any(Order.class), eq("key-1"))).thenReturn(new OrderResult(order, true));
+
+        mockMvc.perform(post("/orders")
+                        .header("Idempotency-Key", "key-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(order)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(jsonPath("$.id").value(1));
+    }
+
+    @Test
+    void shouldRejectIdempotencyKeyReusedForDifferentOrder() throws Exception {
+        Order order = Order.builder().userId(2L).productId(3L).quantity(3).build();
+        when(orderService.createOrder(any(Order.class), eq("key-1"))).thenThrow(new IdempotencyKeyConflictException("key-1"));
+
+        mockMvc.perform(post("/orders")
+                        .header("Idempotency-Key", "key-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(order)))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
     @Test
     void shouldGetAllOrders() throws Exception {
         Order order = Order.builder()
@@ -123,12 +199,72 @@ public class OrderControllerTest {
                 .quantity(3)
                 .status(OrderStatus.PENDING)
                 .build();
-        when(orderService.getAllOrders())
-                .thenReturn(Collections.singletonList(order));
+        when(orderService.getOrders(new OrderFilter(null, null, null, null), null, 50))
+                .thenReturn(new OrderPage(Collections.singletonList(order), "next"));
 
         mockMvc.perform(get("/orders"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.length()").value(1));
+                .andExpect(jsonPath("$.orders.length()").value(1))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+    }
+
+    @Test
+    void shouldPassFiltersAndCapPageSize() throws Exception {
+        when(orderService.getOrders(new OrderFilter(7L, OrderStatus.CONFIRMED, null, null), "abc", 500))
+                .thenReturn(new OrderPage(List.of(), null));
+
+        mockMvc.perform(get("/orders")
+                        .param("userId", "7")
+                        .param("status", "CONFIRMED")
+                        .param("cursor", "abc")
+                        .param("limit", "100000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orders.length()").value(0));
+    }
+
+    @Test
+    void shouldPassCreatedAtRangeForUserHistory() throws Exception {
+        OrderFilter filter = new OrderFilter(7L, null, LocalDateTime.of(2025, 1, 1, 0, 0), LocalDateTime.of(2025, 2, 1, 0, 0));
+        when(orderService.getOrders(filter, null, 50)).thenReturn(new OrderPage(List.of(), null));
+
+        mockMvc.perform(get("/orders")
+                        .param("userId", "7")
+                        .param("from", "2025-01-01T00:00:00")
+                        .param("to", "2025-02-01T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orders.length()").value(0));
+    }
+
+    @Test
+    void shouldRejectInvalidCursor() throws Exception {
+        when(orderService.getOrders(any(OrderFilter.class), eq("bogus"), anyInt()))
+                .thenThrow(new InvalidCursorException("bogus"));
+
+        mockMvc.perform(get("/orders").param("cursor", "bogus"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Invalid cursor"));
+    }
+
+    @Test
+    void shouldExportOrdersAsNdjson() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<Order> sink = invocation.getArgument(1);
+            sink.accept(Order.builder().id(1L).userId(1L).productId(2L).quantity(1).build());
+            sink.accept(Order.builder().id(2L).userId(1L).productId(3L).quantity(2).build());
+            return null;
+        }).when(orderService).exportOrders(eq(new OrderFilter(1L, null, null, null)), any());
+
+        MvcResult result = mockMvc.perform(get("/orders/export").param("userId", "1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+        List<String> lines = body.lines().toList();
+        assertEquals(2, lines.size());
+        assertEquals(2L, objectMapper.readValue(lines.get(1), Order.class).getId());
     }
 
     @Test
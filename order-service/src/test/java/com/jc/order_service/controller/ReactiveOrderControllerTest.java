@@ -0,0 +1,169 @@
+package com.jc.order_service.controller;
+
+import com.jc.order_service.dto.OrderResult;
+import com.jc.order_service.entity.OrderStatus;
+import com.jc.order_service.exception.OrderNotFoundException;
+import com.jc.order_service.model.Order;
+import com.jc.order_service.service.OrderService;
+import com.jc.order_service.service.ProductService;
+import com.jc.order_service.service.ReactiveOrderService;
+import com.jc.order_service.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = ReactiveOrderController.class, properties = "order.reactive.enabled=true")
+public class ReactiveOrderControllerTest {
+
+    @TestConfiguration
+    static class SchedulerConfig {
+        @Bean
+        Scheduler blockingScheduler() {
+            return Schedulers.boundedElastic();
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ReactiveOrderController controller;
+
+    @MockitoBean
+    private OrderService orderService;
+
+    @MockitoBean
+    private ReactiveOrderService reactiveOrderService;
+
+    @MockitoBean
+    private UserService userService;
+
+    @MockitoBean
+    private ProductService productService;
+
+    @Test
+    void shouldCreateOrderAsynchronously() throws Exception {
+        Order saved = Order.builder().id(1L).userId(1L).productId(10L).quantity(2).status(OrderStatus.PENDING).build();
+        when(reactiveOrderService.createOrder(any(Order.class), isNull())).thenReturn(Mono.just(new OrderResult(saved, false)));
+
+        MvcResult result = mockMvc.perform(post("/orders")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"userId\":1,\"productId\":10,\"quantity\":2}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(1));
+    }
+
+    @Test
+    void shouldMapErrorsThroughExceptionHandler() throws Exception {
+        when(orderService.getOrderById(5L)).thenThrow(new OrderNotFoundException(5L));
+
+        MvcResult result = mockMvc.perform(get("/orders/5"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error").value("Order not found"));
+    }
+
+    @Test
+    void shouldStreamExportAsNdjson() throws Exception {
+        List<Order> orders = List.of(
+                Order.builder().id(1L).userId(1L).productId(10L).quantity(2).build(),
+                Order.builder().id(2L).userId(1L).productId(11L).quantity(1).build());
+        doAnswer(invocation -> {
+            Consumer<Order> sink = invocation.getArgument(1);
+            orders.forEach(sink);
+            return null;
+        }).when(orderService).exportOrders(any(), any());
+
+        MvcResult result = mockMvc.perform(get("/orders/export").param("userId", "1").accept("application/x-ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("\"id\":2")));
+    }
+
+    @Test
+    void shouldOnlyReadExportRowsTheClientRequested() throws Exception {
+        AtomicInteger read = new AtomicInteger();
+        CountDownLatch finished = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            Consumer<Order> sink = invocation.getArgument(1);
+            for (long id = 1; id <= 5; id++) {
+                read.incrementAndGet();
+                sink.accept(Order.builder().id(id).build());
+            }
+            return null;
+        }).when(orderService).exportOrders(any(), any());
+
+        List<Order> received = new CopyOnWriteArrayList<>();
+        BaseSubscriber<Order> client = new BaseSubscriber<>() {
+            @Override
+            protected void hookOnSubscribe(Subscription subscription) {
+                request(2);
+            }
+
+            @Override
+            protected void hookOnNext(Order order) {
+                received.add(order);
+            }
+
+            @Override
+            protected void hookFinally(SignalType type) {
+                finished.countDown();
+            }
+        };
+        controller.exportOrders(1L, null, null, null).subscribe(client);
+
+        assertFalse(finished.await(200, TimeUnit.MILLISECONDS));
+        assertEquals(2, received.size());
+        assertEquals(3, read.get());
+
+        client.request(3);
+
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+        assertEquals(5, received.size());
+    }
+}
@@ -0,0 +1,165 @@
+package com.jc.order_service.limit;
+
+import com.jc.order_service.exception.ConcurrencyLimitExceededException;
+import com.jc.order_service.exception.ExternalServiceException;
+import feign.FeignException;
+import feign.Request;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdaptiveConcurrencyLimiterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldRejectCallsOverTheLimit() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = limiter(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> holder = executor.submit(() -> limiter.execute(() -> {
+            await(release);
+            return "done";
+        }));
+        while (limiter.getInFlight() == 0) {
+            Thread.sleep(5);
+        }
+
+        assertThrows(ConcurrencyLimitExceededException.class, () -> limiter.execute(() -> "rejected"));
+        release.countDown();
+
+        assertEquals("done", holder.get(2, TimeUnit.SECONDS));
+        assertEquals(1.0, meterRegistry.get("downstream.limiter.rejected").tag("name", "productService").counter().count());
+        assertEquals(0.0, meterRegistry.get("downstream.limiter.in.flight").gauge().value());
+    }
+
+    @Test
+    void shouldHoldReactivePermitUntilTheMonoTerminates() {
+        AdaptiveConcurrencyLimiter limiter = limiter(1);
+        Sinks.One<String> response = Sinks.one();
+        Mono<String> call = limiter.execute(response.asMono());
+
+        assertEquals(0, limiter.getInFlight());
+        call.subscribe();
+        assertEquals(1, limiter.getInFlight());
+        assertThrows(ConcurrencyLimitExceededException.class, () -> limiter.execute(Mono.just("rejected")).block());
+
+        response.tryEmitValue("done");
+        assertEquals(0, limiter.getInFlight());
+        assertEquals("ok", limiter.execute(Mono.just("ok")).block());
+    }
+
+    @Test
+    void shouldReleaseCancelledReactiveCallWithoutTakingASample() {
+        AdaptiveConcurrencyLimiter limiter = limiter(1);
+        Disposable call = limiter.execute(Sinks.<String>one().asMono()).subscribe();
+        assertEquals(1, limiter.getInFlight());
+
+        call.dispose();
+
+        assertEquals(0, limiter.getInFlight());
+        assertEquals(1, limiter.getLimit());
+    }
+
+    @Test
+    void shouldRaiseLimitWhileSaturatedAndFast() {
+        AdaptiveConcurrencyLimiter limiter = limiter(1);
+
+        for (int i = 0; i < 5; i++) {
+            limiter.execute(() -> "ok");
+        }
+
+        assertTrue(limiter.getLimit() > 1);
+        assertEquals(limiter.getLimit(), meterRegistry.get("downstream.limiter.limit").gauge().value());
+    }
+
+    @Test
+    void shouldCutLimitWhenCallsFailWithoutResponse() {
+        AdaptiveConcurrencyLimiter limiter = limiter(20);
+
+        assertThrows(ExternalServiceException.class, () -> limiter.execute(() -> {
+            throw new ExternalServiceException("timeout");
+        }));
+
+        assertEquals(18, limiter.getLimit());
+    }
+
+    @Test
+    void shouldCutLimitOnlyOncePerRoundTrip() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = limiter(20);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<?>> calls = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            calls.add(executor.submit(() -> limiter.execute(() -> {
+                await(release);
+                throw new ExternalServiceException("timeout");
+            })));
+        }
+        while (limiter.getInFlight() < 10) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+        for (Future<?> call : calls) {
+            assertThrows(ExecutionException.class, call::get);
+        }
+
+        assertEquals(18, limiter.getLimit());
+        assertThrows(ExternalServiceException.class, () -> limiter.execute(() -> {
+            throw new ExternalServiceException("timeout");
+        }));
+        assertEquals(16, limiter.getLimit());
+    }
+
+    @Test
+    void shouldNotCutLimitOnClientErrors() {
+        AdaptiveConcurrencyLimiter limiter = limiter(20);
+        Request request = Request.create(Request.HttpMethod.GET, "/products/1", new HashMap<>(), null, StandardCharsets.UTF_8, null);
+
+        assertThrows(FeignException.NotFound.class, () -> limiter.execute(() -> {
+            throw new FeignException.NotFound("not found", request, null, null);
+        }));
+
+        assertEquals(20, limiter.getLimit());
+    }
+
+    private AdaptiveConcurrencyLimiter limiter(int initialLimit) {
+        return new AdaptiveConcurrencyLimiter("productService", meterRegistry, initialLimit, 1, 200, 2.0, 0.9, 500);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(2, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
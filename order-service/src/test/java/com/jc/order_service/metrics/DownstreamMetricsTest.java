@@ -0,0 +1,56 @@
+package com.jc.order_service.metrics;
+
+import feign.FeignException;
+import feign.Request;
+import feign.RetryableException;
+import io.github.resilience4j.ratelimiter.RequestNotPermitted;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.net.ConnectException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DownstreamMetricsTest {
+
+    private final Request request = Request.create(Request.HttpMethod.GET, "/users/1", new HashMap<>(), null, StandardCharsets.UTF_8, null);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final DownstreamMetrics metrics = new DownstreamMetrics(meterRegistry);
+
+    @Test
+    void shouldTimeCallsByOutcome() {
+        assertEquals("ok", metrics.time("user", "getUserById", () -> "ok"));
+        assertThrows(FeignException.NotFound.class, () -> metrics.time("user", "getUserById", () -> {
+            throw new FeignException.NotFound("not found", request, null, null);
+        }));
+        assertThrows(RetryableException.class, () -> metrics.run("user", "getUserById", () -> {
+            throw new RetryableException(-1, "refused", Request.HttpMethod.GET, new ConnectException("refused"), (Long) null, request);
+        }));
+
+        assertEquals(1, timerCount("success"));
+        assertEquals(1, timerCount("not_found"));
+        assertEquals(1, timerCount("connect_failure"));
+    }
+
+    @Test
+    void shouldCountFallbackBranches() {
+        metrics.fallback("user", "getUser", new FeignException.NotFound("not found", request, null, null));
+        metrics.fallback("user", "getUser", RequestNotPermitted.createRequestNotPermitted(RateLimiter.ofDefaults("userServiceRL")));
+        metrics.fallback("user", "getUser", new IllegalStateException("boom"));
+
+        assertEquals(1, fallbackCount("not_found"));
+        assertEquals(1, fallbackCount("rate_limited"));
+        assertEquals(1, fallbackCount("other"));
+    }
+
+    private long timerCount(String outcome) {
+        return meterRegistry.get("downstream.client.calls").tag("outcome", outcome).timer().count();
+    }
+
+    private double fallbackCount(String branch) {
+        return meterRegistry.get("downstream.fallback").tag("branch", branch).counter().count();
+    }
+}
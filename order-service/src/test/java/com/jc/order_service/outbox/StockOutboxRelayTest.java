@@ -0,0 +1,113 @@
+package com.jc.order_service.outbox;
+
+import com.jc.order_service.entity.OrderStatus;
+import com.jc.order_service.exception.ExternalServiceException;
+import com.jc.order_service.exception.InsufficientStockException;
+import com.jc.order_service.exception.ReservationReleasedException;
+import com.jc.order_service.model.OutboxEvent;
+import com.jc.order_service.repository.OrderRepository;
+import com.jc.order_service.repository.OutboxEventRepository;
+import com.jc.order_service.service.ProductService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class StockOutboxRelayTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private ProductService productService;
+
+    private StockOutboxRelay relay;
+
+    private OutboxEvent event;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        relay = new StockOutboxRelay(outboxEventRepository, orderRepository, productService,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), new SimpleMeterRegistry(),
+                10, Duration.ofSeconds(1), Duration.ofMinutes(5));
+        event = OutboxEvent.stockDecrement(1L, 3, Set.of(11L, 12L));
+        event.setId(42L);
+        when(outboxEventRepository.findByNextAttemptAtLessThanEqualOrderByIdAsc(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(event));
+    }
+
+    @Test
+    void testRelay_ConfirmsOrdersAndDeletesEventOnSuccess() {
+        relay.relay();
+
+        verify(productService).decrementStock(1L, 3, "order-outbox-42");
+        verify(orderRepository).updateStatus(eq(Set.of(11L, 12L)), eq(OrderStatus.PENDING), eq(OrderStatus.CONFIRMED), any(LocalDateTime.class));
+        verify(outboxEventRepository).deleteById(42L);
+    }
+
+    @Test
+    void testRelay_FailsOrdersWhenStockIsRejected() {
+        doThrow(new InsufficientStockException(1L, 3)).when(productService).decrementStock(1L, 3, "order-outbox-42");
+
+        relay.relay();
+
+        verify(orderRepository).updateStatus(eq(Set.of(11L, 12L)), eq(OrderStatus.PENDING), eq(OrderStatus.FAILED), any(LocalDateTime.class));
+        verify(outboxEventRepository).deleteById(42L);
+    }
+
+    @Test
+    void testRelay_ReschedulesWithBackoffOnTransientFailure() {
+        doThrow(new ExternalServiceException("Product service unavailable"))
+                .when(productService).decrementStock(1L, 3, "order-outbox-42");
+        LocalDateTime before = LocalDateTime.now();
+
+        relay.relay();
+
+        verify(outboxEventRepository).save(event);
+        verify(outboxEventRepository, never()).deleteById(any());
+        verify(orderRepository, never()).updateStatus(any(), any(), any(), any());
+        assertEquals(1, event.getAttempts());
+        assertEquals("Product service unavailable", event.getLastError());
+        assertFalse(event.getNextAttemptAt().isBefore(before.plusSeconds(1)));
+    }
+
+    @Test
+    void testRelay_ConfirmsReservationInsteadOfDecrementing() {
+        event.setReservationId("order-r-1");
+
+        relay.relay();
+
+        verify(productService).confirmReservation("order-r-1");
+        verify(productService, never()).decrementStock(any(), anyInt(), any());
+        verify(orderRepository).updateStatus(eq(Set.of(11L, 12L)), eq(OrderStatus.PENDING), eq(OrderStatus.CONFIRMED), any(LocalDateTime.class));
+    }
+
+    @Test
+    void testRelay_FailsOrdersWhenReservationHasExpired() {
+        event.setReservationId("order-r-1");
+        doThrow(new ReservationReleasedException("order-r-1")).when(productService).confirmReservation("order-r-1");
+
+        relay.relay();
+
+        verify(orderRepository).updateStatus(eq(Set.of(11L, 12L)), eq(OrderStatus.PENDING), eq(OrderStatus.FAILED), any(LocalDateTime.class));
+        verify(outboxEventRepository).deleteById(42L);
+    }
+}
@@ -0,0 +1,92 @@
+package com.jc.order_service.repository;
+
+import com.jc.order_service.dto.OrderCursor;
+import com.jc.order_service.dto.OrderFilter;
+import com.jc.order_service.entity.OrderStatus;
+import com.jc.order_service.model.Order;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+public class OrderRepositoryTest {
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void shouldInsertAllOrdersInBatchesAndAssignIds() {
+        List<Order> orders = List.of(
+                Order.builder().userId(1L).productId(10L).quantity(2).build(),
+                Order.builder().userId(2L).productId(10L).quantity(1).build(),
+                Order.builder().userId(3L).productId(20L).quantity(4).status(OrderStatus.CONFIRMED).build());
+
+        List<Order> saved = orderRepository.insertAll(orders);
+
+        assertTrue(saved.stream().allMatch(order -> order.getId() != null));
+        assertEquals(3, orderRepository.count());
+        Order reloaded = orderRepository.findById(saved.get(2).getId()).orElseThrow();
+        assertEquals(OrderStatus.CONFIRMED, reloaded.getStatus());
+        assertNotNull(reloaded.getCreatedAt());
+        assertEquals(OrderStatus.PENDING, orderRepository.findById(saved.get(0).getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void shouldPageNewestFirstWithKeysetCursorAndFilters() {
+        List<Order> saved = orderRepository.insertAll(List.of(
+                Order.builder().userId(1L).productId(10L).quantity(1).build(),
+                Order.builder().userId(1L).productId(11L).quantity(1).build(),
+                Order.builder().userId(2L).productId(12L).quantity(1).build(),
+                Order.builder().userId(1L).productId(13L).quantity(1).status(OrderStatus.CONFIRMED).build()));
+        OrderFilter byUser = new OrderFilter(1L, null, null, null);
+
+        List<Order> first = orderRepository.findPage(byUser, null, 2);
+        List<Order> second = orderRepository.findPage(byUser, OrderCursor.of(first.get(1)), 2);
+
+        assertEquals(List.of(saved.get(3).getId(), saved.get(1).getId()), first.stream().map(Order::getId).toList());
+        assertEquals(List.of(saved.get(0).getId()), second.stream().map(Order::getId).toList());
+        assertEquals(1, orderRepository.findPage(new OrderFilter(1L, OrderStatus.CONFIRMED, null, null), null, 10).size());
+    }
+
+    @Test
+    void shouldStreamEveryMatchingOrder() {
+        orderRepository.insertAll(List.of(
+                Order.builder().userId(1L).productId(10L).quantity(1).build(),
+                Order.builder().userId(2L).productId(11L).quantity(1).build(),
+                Order.builder().userId(1L).productId(12L).quantity(1).build()));
+        List<Long> productIds = new ArrayList<>();
+
+        orderRepository.forEach(new OrderFilter(1L, null, null, null), order -> productIds.add(order.getProductId()));
+
+        assertEquals(List.of(12L, 10L), productIds);
+    }
+
+    @Test
+    void shouldRestrictUserHistoryToCreatedAtRange() {
+        List<Order> saved = orderRepository.insertAll(List.of(
+                Order.builder().userId(1L).productId(10L).quantity(1).build(),
+                Order.builder().userId(1L).productId(11L).quantity(1).build(),
+                Order.builder().userId(1L).productId(12L).quantity(1).build()));
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 0, 0);
+        for (int i = 0; i < saved.size(); i++) {
+            jdbcTemplate.update("UPDATE orders SET created_at = ? WHERE id = ?", start.plusDays(i), saved.get(i).getId());
+        }
+
+        List<Order> page = orderRepository.findPage(new OrderFilter(1L, null, start.plusDays(1), start.plusDays(2)), null, 10);
+
+        assertEquals(List.of(saved.get(1).getId()), page.stream().map(Order::getId).toList());
+    }
+
+}
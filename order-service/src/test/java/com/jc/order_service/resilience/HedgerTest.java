@@ -0,0 +1,170 @@
+package com.jc.order_service.resilience;
+
+import com.jc.order_service.exception.ExternalServiceException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HedgerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldNotHedgeFastCalls() {
+        Hedger hedger = hedger(new RetryBudget("productService", meterRegistry, 0.1, 10));
+        AtomicInteger calls = new AtomicInteger();
+
+        assertEquals("laptop", hedger.execute(() -> {
+            calls.incrementAndGet();
+            return "laptop";
+        }));
+
+        assertEquals(1, calls.get());
+        assertEquals(0.0, meterRegistry.get("downstream.hedge.issued").counter().count());
+    }
+
+    @Test
+    void shouldReturnHedgeWhenPrimaryIsSlow() {
+        Hedger hedger = hedger(new RetryBudget("productService", meterRegistry, 0.1, 10));
+        CountDownLatch primaryRelease = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+
+        String result = hedger.execute(() -> {
+            if (calls.incrementAndGet() == 1) {
+                await(primaryRelease);
+                return "slow";
+            }
+            return "hedge";
+        });
+        primaryRelease.countDown();
+
+        assertEquals("hedge", result);
+        assertEquals(1.0, meterRegistry.get("downstream.hedge.issued").counter().count());
+        assertEquals(1.0, meterRegistry.get("downstream.hedge.won").counter().count());
+    }
+
+    @Test
+    void shouldWaitForPrimaryWhenHedgeFails() {
+        Hedger hedger = hedger(new RetryBudget("productService", meterRegistry, 0.1, 10));
+        AtomicInteger calls = new AtomicInteger();
+
+        String result = hedger.execute(() -> {
+            if (calls.incrementAndGet() == 1) {
+                sleep(Duration.ofMillis(150));
+                return "primary";
+            }
+            throw new ExternalServiceException("Product service down");
+        });
+
+        assertEquals("primary", result);
+    }
+
+    @Test
+    void shouldPropagateErrorWhenBothCallsFail() {
+        Hedger hedger = hedger(new RetryBudget("productService", meterRegistry, 0.1, 10));
+        Supplier<String> failing = () -> {
+            sleep(Duration.ofMillis(100));
+            throw new ExternalServiceException("Product service down");
+        };
+
+        assertThrows(ExternalServiceException.class, () -> hedger.execute(failing));
+    }
+
+    @Test
+    void shouldNotHedgeWhenBudgetIsExhausted() {
+        Hedger hedger = hedger(new RetryBudget("productService", meterRegistry, 0.1, 0));
+        AtomicInteger calls = new AtomicInteger();
+
+        assertEquals("slow", hedger.execute(() -> {
+            calls.incrementAndGet();
+            sleep(Duration.ofMillis(100));
+            return "slow";
+        }));
+
+        assertEquals(1, calls.get());
+        assertEquals(1.0, meterRegistry.get("downstream.retry.budget.exhausted").counter().count());
+    }
+
+    @Test
+    void shouldReturnReactiveHedgeWhenPrimaryIsSlow() {
+        Hedger hedger = hedger(new RetryBudget("productService", meterRegistry, 0.1, 10));
+        AtomicInteger calls = new AtomicInteger();
+        Mono<String> call = Mono.defer(() -> calls.incrementAndGet() == 1 ? Mono.<String>never() : Mono.just("hedge"));
+
+        assertEquals("hedge", hedger.execute(call).block(Duration.ofSeconds(2)));
+        assertEquals(2, calls.get());
+        assertEquals(1.0, meterRegistry.get("downstream.hedge.won").counter().count());
+    }
+
+    @Test
+    void shouldReportReactivePrimaryErrorWithoutHedging() {
+        Hedger hedger = hedger(new RetryBudget("productService", meterRegistry, 0.1, 10));
+        AtomicInteger calls = new AtomicInteger();
+        Mono<String> call = Mono.defer(() -> {
+            calls.incrementAndGet();
+            return Mono.error(new ExternalServiceException("Product service down"));
+        });
+
+        assertThrows(ExternalServiceException.class, () -> hedger.execute(call).block(Duration.ofSeconds(2)));
+        assertEquals(1, calls.get());
+        assertEquals(0.0, meterRegistry.get("downstream.hedge.issued").counter().count());
+    }
+
+    @Test
+    void shouldDeriveDelayFromLatencyPercentile() {
+        Hedger hedger = new Hedger("productService", meterRegistry, executor, new RetryBudget("productService", meterRegistry, 0.1, 10),
+                true, 0.95, Duration.ofMillis(1), Duration.ofSeconds(1), 10);
+        assertEquals(Duration.ofSeconds(1), hedger.getDelay());
+
+        for (int i = 0; i < 10; i++) {
+            hedger.execute(() -> "fast");
+        }
+
+        assertTrue(hedger.getDelay().compareTo(Duration.ofSeconds(1)) < 0);
+    }
+
+    private Hedger hedger(RetryBudget budget) {
+        return new Hedger("productService", meterRegistry, executor, budget, true, 0.95, Duration.ofMillis(20), Duration.ofMillis(20), 200);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(2, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
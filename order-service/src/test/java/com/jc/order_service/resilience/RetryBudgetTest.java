@@ -0,0 +1,34 @@
+package com.jc.order_service.resilience;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RetryBudgetTest {
+
+    @Test
+    void shouldAllowRetriesOnlyWithinTheDepositedRatio() {
+        RetryBudget budget = new RetryBudget("productService", new SimpleMeterRegistry(), 0.5, 2);
+
+        assertTrue(budget.tryWithdraw());
+        assertTrue(budget.tryWithdraw());
+        assertFalse(budget.tryWithdraw());
+
+        budget.deposit();
+        assertFalse(budget.tryWithdraw());
+        budget.deposit();
+        assertTrue(budget.tryWithdraw());
+    }
+
+    @Test
+    void shouldCapTokens() {
+        RetryBudget budget = new RetryBudget("productService", new SimpleMeterRegistry(), 1, 2);
+
+        for (int i = 0; i < 10; i++) {
+            budget.deposit();
+        }
+
+        assertEquals(2.0, budget.getTokens());
+    }
+}
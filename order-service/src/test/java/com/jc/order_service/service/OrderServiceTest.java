@@ -1,26 +1,60 @@
 package com.jc.order_service.service;
 
+import com.jc.order_service.cache.ProductCache;
+import com.jc.order_service.cache.UserCache;
 import com.jc.order_service.client.ProductClient;
 import com.jc.order_service.client.UserClient;
+import com.jc.order_service.dto.OrderCursor;
+import com.jc.order_service.dto.OrderFilter;
+import com.jc.order_service.dto.OrderPage;
+import com.jc.order_service.dto.OrderResult;
 import com.jc.order_service.entity.OrderStatus;
+import com.jc.order_service.exception.IdempotencyKeyConflictException;
 import com.jc.order_service.exception.InsufficientStockException;
+import com.jc.order_service.exception.InvalidCursorException;
+import com.jc.order_service.exception.InvalidIdempotencyKeyException;
+import com.jc.order_service.exception.OrderArchivedException;
 import com.jc.order_service.exception.OrderNotFoundException;
+import com.jc.order_service.exception.OrderQueueFullException;
 import com.jc.order_service.exception.ProductNotFoundException;
 import com.jc.order_service.exception.UserNotFoundException;
+import com.jc.order_service.idempotency.IdempotencyIndex;
+import com.jc.order_service.model.ArchivedOrder;
+import com.jc.order_service.model.IdempotencyKey;
 import com.jc.order_service.model.Order;
+import com.jc.order_service.model.OutboxEvent;
+import com.jc.order_service.queue.OrderWorkQueue;
+import com.jc.order_service.repository.ArchivedOrderRepository;
+import com.jc.order_service.repository.IdempotencyKeyRepository;
 import com.jc.order_service.repository.OrderRepository;
+import com.jc.order_service.repository.OutboxEventRepository;
+import com.jc.order_service.summary.OrderSummaryProjector;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
 
 public class OrderServiceTest {
@@ -28,6 +62,18 @@ public class OrderServiceTest {
     @Mock
     private OrderRepository orderRepository;
 
+    @Mock
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Mock
+    private OrderSummaryProjector orderSummaryProjector;
+
     @Mock
     private UserClient userClient;
 
@@ -39,17 +85,38 @@ public class OrderServiceTest {
     @Mock
     private ProductClient productClient;
 
-    @InjectMocks
+    private ExecutorService downstreamExecutor;
+
+    private OrderWorkQueue orderWorkQueue;
+
     private OrderServiceImpl orderService;
 
     private Order order;
 
+    private SimpleMeterRegistry meterRegistry;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        downstreamExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        meterRegistry = new SimpleMeterRegistry();
+        UserCache userCache = new UserCache(userService, meterRegistry, true, 100, Duration.ofMinutes(10), Duration.ofSeconds(30));
+        ProductCache productCache = new ProductCache(productService, meterRegistry, downstreamExecutor, true, 100, Duration.ofSeconds(60), Duration.ofSeconds(45));
+        orderWorkQueue = new OrderWorkQueue(meterRegistry, 1, 10);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+        orderService = new OrderServiceImpl(orderRepository, archivedOrderRepository, outboxEventRepository, transactionTemplate, userCache, productCache,
+                productService, downstreamExecutor, orderWorkQueue, idempotencyKeyRepository,
+                new IdempotencyIndex(idempotencyKeyRepository, meterRegistry, 100, Duration.ofHours(24)), orderSummaryProjector, meterRegistry,
+                Duration.ofMinutes(15), false);
         order = Order.builder().id(1L).userId(1L).productId(2L).quantity(3).status(OrderStatus.PENDING).build();
     }
 
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        downstreamExecutor.shutdownNow();
+        orderWorkQueue.shutdown();
+    }
+
     @Test
     void testCreateOrder_Success() {
         UserClient.UserResponse user = new UserClient.UserResponse(1L, "John Doe", "john@example.com");
@@ -67,6 +134,93 @@ public class OrderServiceTest {
 
         assertNotNull(result);
         assertEquals(2, result.getQuantity());
+        verify(orderSummaryProjector).ordersAdded(List.of(savedOrder));
+        assertEquals(1, meterRegistry.get("orders.db.write").tag("operation", "save").timer().count());
+    }
+
+    @Test
+    void testCreateOrder_IgnoresStatusSentByClient() {
+        when(userService.getUser(1L)).thenReturn(new UserClient.UserResponse(1L, "John Doe", "john@example.com"));
+        when(productService.getProduct(1L)).thenReturn(new ProductClient.ProductResponse(1L, "Laptop", 10.0, "laptop", 10));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
+            Order saved = invocation.getArgument(0);
+            saved.setId(1L);
+            return saved;
+        });
+
+        Order result = orderService.createOrder(Order.builder().userId(1L).productId(1L).quantity(2).status(OrderStatus.CONFIRMED).build());
+
+        assertEquals(OrderStatus.PENDING, result.getStatus());
+    }
+
+    @Test
+    void testCreateOrder_ReplaysKnownIdempotencyKeyWithoutDownstreamCalls() {
+        when(userService.getUser(1L)).thenReturn(new UserClient.UserResponse(1L, "John Doe", "john@example.com"));
+        when(productService.getProduct(2L)).thenReturn(new ProductClient.ProductResponse(2L, "Laptop", 10.0, "laptop", 10));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
+            Order saved = invocation.getArgument(0);
+            saved.setId(9L);
+            return saved;
+        });
+
+        OrderResult first = orderService.createOrder(Order.builder().userId(1L).productId(2L).quantity(3).build(), "key-1");
+        when(orderRepository.findById(9L)).thenReturn(Optional.of(first.order()));
+        OrderResult retry = orderService.createOrder(Order.builder().userId(1L).productId(2L).quantity(3).build(), "key-1");
+
+        assertFalse(first.replayed());
+        assertTrue(retry.replayed());
+        assertEquals(9L, retry.order().getId());
+        verify(idempotencyKeyRepository).save(argThat(key -> key.getIdempotencyKey().equals("key-1") && key.getOrderId() == 9L));
+        verify(orderRepository, times(1)).save(any(Order.class));
+        verify(userService, times(1)).getUser(1L);
+        verify(productService, times(1)).getProduct(2L);
+        verify(idempotencyKeyRepository, times(1)).findByIdempotencyKey("key-1");
+    }
+
+    @Test
+    void testCreateOrder_ReplaysKeyStoredByAnotherInstanceWithoutDownstreamCalls() {
+        IdempotencyKey stored = IdempotencyKey.builder().idempotencyKey("key-1").orderId(1L).requestFingerprint("1:2:3").build();
+        when(idempotencyKeyRepository.findByIdempotencyKey("key-1")).thenReturn(Optional.of(stored));
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+
+        OrderResult result = orderService.createOrder(Order.builder().userId(1L).productId(2L).quantity(3).build(), "key-1");
+
+        assertTrue(result.replayed());
+        assertEquals(order, result.order());
+        verifyNoInteractions(userService, productService);
+        verify(orderRepository, never()).save(any(Order.class));
+    }
+
+    @Test
+    void testCreateOrder_ReplaysStoredKeyAfterLosingConcurrentInsert() {
+        when(userService.getUser(1L)).thenReturn(new UserClient.UserResponse(1L, "John Doe", "john@example.com"));
+        when(productService.getProduct(2L)).thenReturn(new ProductClient.ProductResponse(2L, "Laptop", 10.0, "laptop", 10));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(idempotencyKeyRepository.save(any(IdempotencyKey.class))).thenThrow(new DataIntegrityViolationException("duplicate key"));
+        IdempotencyKey winner = IdempotencyKey.builder().idempotencyKey("key-1").orderId(1L).requestFingerprint("1:2:3").build();
+        when(idempotencyKeyRepository.findByIdempotencyKey("key-1")).thenReturn(Optional.empty(), Optional.of(winner));
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+
+        OrderResult result = orderService.createOrder(Order.builder().userId(1L).productId(2L).quantity(3).build(), "key-1");
+
+        assertTrue(result.replayed());
+        assertEquals(order, result.order());
+    }
+
+    @Test
+    void testCreateOrder_RejectsIdempotencyKeyReusedForDifferentOrder() {
+        IdempotencyKey stored = IdempotencyKey.builder().idempotencyKey("key-1").orderId(1L).requestFingerprint("1:2:3").build();
+        when(idempotencyKeyRepository.findByIdempotencyKey("key-1")).thenReturn(Optional.of(stored));
+
+        Order different = Order.builder().userId(1L).productId(2L).quantity(5).build();
+
+        assertThrows(IdempotencyKeyConflictException.class, () -> orderService.createOrder(different, "key-1"));
+        verify(orderRepository, never()).save(any(Order.class));
+    }
+
+    @Test
+    void testCreateOrder_RejectsBlankIdempotencyKey() {
+        assertThrows(InvalidIdempotencyKeyException.class, () -> orderService.createOrder(order, " "));
     }
 
     @Test
@@ -87,6 +241,44 @@ public class OrderServiceTest {
         assertThrows(ProductNotFoundException.class, () -> orderService.createOrder(order));
     }
 
+    @Test
+    void testCreateOrder_LooksUpUserAndProductConcurrently() {
+        UserClient.UserResponse user = new UserClient.UserResponse(1L, "John Doe", "john@example.com");
+        ProductClient.ProductResponse product = new ProductClient.ProductResponse(1L, "Laptop", 10.0, "laptop", 10);
+        CountDownLatch bothStarted = new CountDownLatch(2);
+
+        when(userService.getUser(1L)).thenAnswer(invocation -> {
+            bothStarted.countDown();
+            assertTrue(bothStarted.await(5, TimeUnit.SECONDS));
+            return user;
+        });
+        when(productService.getProduct(1L)).thenAnswer(invocation -> {
+            bothStarted.countDown();
+            assertTrue(bothStarted.await(5, TimeUnit.SECONDS));
+            return product;
+        });
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Order order = new Order(1L, 1L, 1L, 2, OrderStatus.PENDING, null, null);
+
+        assertNotNull(orderService.createOrder(order));
+    }
+
+    @Test
+    void testCreateOrder_UserNotFoundDoesNotWaitForProductLookup() {
+        when(userService.getUser(1L)).thenThrow(new UserNotFoundException(1L));
+        when(productService.getProduct(1L)).thenAnswer(invocation -> {
+            Thread.sleep(Duration.ofSeconds(30));
+            return null;
+        });
+
+        Order order = new Order(1L, 1L, 1L, 2, OrderStatus.PENDING, LocalDateTime.now(), LocalDateTime.now());
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> assertThrows(UserNotFoundException.class, () -> orderService.createOrder(order)));
+        verify(orderRepository, never()).save(any(Order.class));
+    }
+
     @Test
     void testCreateOrder_InsufficientStock() {
         UserClient.UserResponse user = new UserClient.UserResponse(1L, "John Doe", "john@example.com");
@@ -100,6 +292,166 @@ public class OrderServiceTest {
         assertThrows(InsufficientStockException.class, () -> orderService.createOrder(Order));
     }
 
+    @Test
+    void testCreateOrder_ReservesStockAndQueuesItsConfirmation() {
+        when(userService.getUser(1L)).thenReturn(new UserClient.UserResponse(1L, "John Doe", "john@example.com"));
+        when(productService.getProduct(1L)).thenReturn(new ProductClient.ProductResponse(1L, "Laptop", 10.0, "laptop", 10));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
+            Order saved = invocation.getArgument(0);
+            saved.setId(5L);
+            return saved;
+        });
+
+        orderService.createOrder(new Order(null, 1L, 1L, 2, null, null, null));
+
+        ArgumentCaptor<String> reservationId = ArgumentCaptor.forClass(String.class);
+        verify(productService).reserveStock(eq(1L), eq(2), eq(Duration.ofMinutes(15)), reservationId.capture());
+        ArgumentCaptor<OutboxEvent> event = ArgumentCaptor.forClass(OutboxEvent.class);
+        verify(outboxEventRepository).save(event.capture());
+        assertEquals(1L, event.getValue().getProductId());
+        assertEquals(2, event.getValue().getQuantity());
+        assertEquals(reservationId.getValue(), event.getValue().getReservationId());
+        assertEquals(Set.of(5L), event.getValue().getOrderIds());
+        verify(productService, never()).decrementStock(any(), anyInt(), any());
+        verify(productService, never()).releaseReservation(any());
+    }
+
+    @Test
+    void testCreateOrder_DoesNotSaveOrderWhenReservationIsRefused() {
+        when(userService.getUser(1L)).thenReturn(new UserClient.UserResponse(1L, "John Doe", "john@example.com"));
+        when(productService.getProduct(1L)).thenReturn(new ProductClient.ProductResponse(1L, "Laptop", 10.0, "laptop", 10));
+        when(productService.reserveStock(eq(1L), eq(2), any(), any())).thenThrow(new InsufficientStockException(1L, 2));
+
+        assertThrows(InsufficientStockException.class, () -> orderService.createOrder(new Order(null, 1L, 1L, 2, null, null, null)));
+        verify(orderRepository, never()).save(any(Order.class));
+        verify(outboxEventRepository, never()).save(any(OutboxEvent.class));
+    }
+
+    @Test
+    void testCreateOrder_ReleasesReservationWhenOrderCannotBeSaved() {
+        when(userService.getUser(1L)).thenReturn(new UserClient.UserResponse(1L, "John Doe", "john@example.com"));
+        when(productService.getProduct(1L)).thenReturn(new ProductClient.ProductResponse(1L, "Laptop", 10.0, "laptop", 10));
+        when(orderRepository.save(any(Order.class))).thenThrow(new IllegalStateException("database down"));
+
+        assertThrows(IllegalStateException.class, () -> orderService.createOrder(new Order(null, 1L, 1L, 2, null, null, null)));
+
+        ArgumentCaptor<String> reservationId = ArgumentCaptor.forClass(String.class);
+        verify(productService).reserveStock(eq(1L), eq(2), any(), reservationId.capture());
+        verify(productService).releaseReservation(reservationId.getValue());
+    }
+
+    @Test
+    void testSubmitOrder_SavesPendingAndReservesStockInBackground() {
+        when(userService.getUser(1L)).thenReturn(new UserClient.UserResponse(1L, "John Doe", "john@example.com"));
+        when(productService.getProduct(1L)).thenReturn(new ProductClient.ProductResponse(1L, "Laptop", 10.0, "laptop", 10));
+        Order order = new Order(null, 1L, 1L, 2, null, null, null);
+        when(orderRepository.save(order)).thenAnswer(invocation -> {
+            order.setId(7L);
+            return order;
+        });
+        when(orderRepository.findById(7L)).thenReturn(Optional.of(order));
+
+        Order accepted = orderService.submitOrder(order);
+
+        assertEquals(7L, accepted.getId());
+        ArgumentCaptor<OutboxEvent> event = ArgumentCaptor.forClass(OutboxEvent.class);
+        verify(outboxEventRepository, timeout(2000)).save(event.capture());
+        assertEquals(Set.of(7L), event.getValue().getOrderIds());
+        assertEquals(OrderStatus.PENDING, order.getStatus());
+    }
+
+    @Test
+    void testSubmitOrder_MarksOrderFailedWhenValidationFails() {
+        when(userService.getUser(1L)).thenThrow(new UserNotFoundException(1L));
+        Order order = new Order(null, 1L, 1L, 2, null, null, null);
+        when(orderRepository.save(order)).thenAnswer(invocation -> {
+            order.setId(8L);
+            return order;
+        });
+        when(orderRepository.findById(8L)).thenReturn(Optional.of(order));
+
+        orderService.submitOrder(order);
+
+        verify(orderRepository, timeout(2000).times(2)).save(order);
+        assertEquals(OrderStatus.FAILED, order.getStatus());
+        verify(outboxEventRepository, never()).save(any(OutboxEvent.class));
+    }
+
+    @Test
+    void testSubmitOrder_RejectsWhenQueueIsFull() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        for (long id = 1; id <= 10; id++) {
+            orderWorkQueue.resubmit(id, orderId -> awaitQuietly(release));
+        }
+
+        assertThrows(OrderQueueFullException.class, () -> orderService.submitOrder(new Order(null, 1L, 1L, 2, null, null, null)));
+        verify(orderRepository, never()).save(any(Order.class));
+        release.countDown();
+    }
+
+    @Test
+    void testCreateOrders_LooksUpEachIdOnceAndGroupsStockByProduct() {
+        when(userService.getUser(1L)).thenReturn(new UserClient.UserResponse(1L, "John Doe", "john@example.com"));
+        when(userService.getUser(2L)).thenReturn(new UserClient.UserResponse(2L, "Jane Doe", "jane@example.com"));
+        when(productService.getProduct(10L)).thenReturn(new ProductClient.ProductResponse(10L, "Laptop", 10.0, "laptop", 10));
+        when(productService.getProduct(20L)).thenReturn(new ProductClient.ProductResponse(20L, "Mouse", 5.0, "mouse", 10));
+        when(orderRepository.insertAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<Order> orders = List.of(
+                Order.builder().id(1L).userId(1L).productId(10L).quantity(2).build(),
+                Order.builder().id(2L).userId(2L).productId(10L).quantity(3).build(),
+                Order.builder().id(3L).userId(1L).productId(20L).quantity(1).status(OrderStatus.CONFIRMED).build());
+
+        List<Order> created = orderService.createOrders(orders);
+        assertEquals(3, created.size());
+        assertTrue(created.stream().allMatch(order -> order.getStatus() == OrderStatus.PENDING));
+        verify(userService, times(1)).getUser(1L);
+        verify(userService, times(1)).getUser(2L);
+        verify(productService, times(1)).getProduct(10L);
+        verify(productService, times(1)).getProduct(20L);
+        ArgumentCaptor<List<OutboxEvent>> events = ArgumentCaptor.captor();
+        verify(outboxEventRepository).saveAll(events.capture());
+        assertEquals(List.of(10L, 20L), events.getValue().stream().map(OutboxEvent::getProductId).toList());
+        assertEquals(List.of(5, 1), events.getValue().stream().map(OutboxEvent::getQuantity).toList());
+        assertEquals(Set.of(1L, 2L), events.getValue().get(0).getOrderIds());
+        assertTrue(events.getValue().stream().allMatch(event -> event.getReservationId() != null));
+        verify(productService).reserveStock(eq(10L), eq(5), any(), any());
+        verify(productService).reserveStock(eq(20L), eq(1), any(), any());
+        verify(orderRepository, never()).save(any(Order.class));
+    }
+
+    @Test
+    void testCreateOrders_ReleasesTakenReservationsWhenOneIsRefused() {
+        when(userService.getUser(1L)).thenReturn(new UserClient.UserResponse(1L, "John Doe", "john@example.com"));
+        when(productService.getProduct(10L)).thenReturn(new ProductClient.ProductResponse(10L, "Laptop", 10.0, "laptop", 10));
+        when(productService.getProduct(20L)).thenReturn(new ProductClient.ProductResponse(20L, "Mouse", 5.0, "mouse", 10));
+        when(productService.reserveStock(eq(20L), eq(1), any(), any())).thenThrow(new InsufficientStockException(20L, 1));
+
+        List<Order> orders = List.of(
+                Order.builder().userId(1L).productId(10L).quantity(2).build(),
+                Order.builder().userId(1L).productId(20L).quantity(1).build());
+
+        assertThrows(InsufficientStockException.class, () -> orderService.createOrders(orders));
+        ArgumentCaptor<String> reservationId = ArgumentCaptor.forClass(String.class);
+        verify(productService).reserveStock(eq(10L), eq(2), any(), reservationId.capture());
+        verify(productService).releaseReservation(reservationId.getValue());
+        verify(orderRepository, never()).insertAll(anyList());
+    }
+
+    @Test
+    void testCreateOrders_InsufficientStockForCombinedQuantity() {
+        when(userService.getUser(1L)).thenReturn(new UserClient.UserResponse(1L, "John Doe", "john@example.com"));
+        when(productService.getProduct(10L)).thenReturn(new ProductClient.ProductResponse(10L, "Laptop", 10.0, "laptop", 4));
+
+        List<Order> orders = List.of(
+                Order.builder().userId(1L).productId(10L).quantity(2).build(),
+                Order.builder().userId(1L).productId(10L).quantity(3).build());
+
+        assertThrows(InsufficientStockException.class, () -> orderService.createOrders(orders));
+        verify(orderRepository, never()).insertAll(anyList());
+        verify(outboxEventRepository, never()).saveAll(anyList());
+    }
+
     @Test
     void shouldGetOrderById() {
         when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
@@ -114,9 +466,62 @@ public class OrderServiceTest {
     }
 
     @Test
-    void shouldGetAllOrders() {
-        when(orderRepository.findAll()).thenReturn(Collections.singletonList(order));
-        assertEquals(1, orderService.getAllOrders().size());
+    void shouldReturnLastPageWithoutCursor() {
+        OrderFilter filter = new OrderFilter(1L, null, null, null);
+        when(orderRepository.findPage(filter, null, 3)).thenReturn(Collections.singletonList(order));
+
+        OrderPage page = orderService.getOrders(filter, null, 2);
+
+        assertEquals(1, page.orders().size());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    void shouldReturnCursorOfLastOrderWhenMoreRemain() {
+        LocalDateTime createdAt = LocalDateTime.of(2025, 1, 1, 12, 0);
+        OrderFilter filter = new OrderFilter(null, null, null, null);
+        List<Order> rows = List.of(
+                Order.builder().id(3L).createdAt(createdAt).build(),
+                Order.builder().id(2L).createdAt(createdAt).build(),
+                Order.builder().id(1L).createdAt(createdAt).build());
+        when(orderRepository.findPage(filter, null, 3)).thenReturn(rows);
+        when(orderRepository.findPage(filter, new OrderCursor(createdAt, 2L), 3)).thenReturn(List.of(rows.get(2)));
+
+        OrderPage first = orderService.getOrders(filter, null, 2);
+        OrderPage second = orderService.getOrders(filter, first.nextCursor(), 2);
+
+        assertEquals(List.of(3L, 2L), first.orders().stream().map(Order::getId).toList());
+        assertEquals(List.of(1L), second.orders().stream().map(Order::getId).toList());
+        assertNull(second.nextCursor());
+    }
+
+    @Test
+    void shouldRejectMalformedCursor() {
+        assertThrows(InvalidCursorException.class, () -> orderService.getOrders(new OrderFilter(null, null, null, null), "not-a-cursor", 10));
+        verify(orderRepository, never()).findPage(any(), any(), anyInt());
+    }
+
+    @Test
+    void shouldFallBackToArchiveWhenOrderIsNotLive() {
+        ArchivedOrder archived = ArchivedOrder.builder().id(1L).userId(1L).productId(2L).quantity(3)
+                .status(OrderStatus.DELIVERED).archivedAt(LocalDateTime.now()).build();
+        when(orderRepository.findById(1L)).thenReturn(Optional.empty());
+        when(archivedOrderRepository.findById(1L)).thenReturn(Optional.of(archived));
+
+        Order found = orderService.getOrderById(1L);
+
+        assertEquals(OrderStatus.DELIVERED, found.getStatus());
+        assertEquals(3, found.getQuantity());
+    }
+
+    @Test
+    void shouldRejectChangesToArchivedOrder() {
+        when(orderRepository.findById(1L)).thenReturn(Optional.empty());
+        when(archivedOrderRepository.existsById(1L)).thenReturn(true);
+
+        assertThrows(OrderArchivedException.class, () -> orderService.updateOrder(1L, order));
+        assertThrows(OrderArchivedException.class, () -> orderService.deleteOrder(1L));
+        verify(orderRepository, never()).save(any(Order.class));
     }
 
     @Test
@@ -127,11 +532,23 @@ public class OrderServiceTest {
         assertEquals(3, updated.getQuantity());
     }
 
+    @Test
+    void shouldApplyQuantityDeltaToSummaryOnUpdate() {
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        Order change = Order.builder().quantity(5).status(OrderStatus.CONFIRMED).build();
+
+        orderService.updateOrder(1L, change);
+
+        verify(orderSummaryProjector).quantityChanged(1L, 2);
+    }
+
     @Test
     void shouldDeleteOrder() {
         when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
         orderService.deleteOrder(1L);
         verify(orderRepository, times(1)).delete(order);
+        verify(orderSummaryProjector).orderRemoved(order);
     }
 
     @Test
@@ -140,4 +557,12 @@ public class OrderServiceTest {
         assertThrows(OrderNotFoundException.class, () -> orderService.deleteOrder(1L));
     }
 
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
 }
@@ -2,17 +2,44 @@ package com.jc.order_service.service;
 
 import com.jc.order_service.client.ProductClient;
 import com.jc.order_service.exception.ExternalServiceException;
+import com.jc.order_service.exception.InsufficientStockException;
+import com.jc.order_service.exception.ReservationReleasedException;
+import com.jc.order_service.limit.AdaptiveConcurrencyLimiter;
+import com.jc.order_service.metrics.DownstreamMetrics;
+import com.jc.order_service.resilience.Hedger;
+import com.jc.order_service.resilience.RetryBudget;
+import feign.FeignException;
+import feign.Request;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
-@SpringBootTest
+// A tight limit so the guard can be seen tripping; the shipped one sits far above capacity.
+@SpringBootTest(properties = {
+        "resilience4j.ratelimiter.instances.productServiceRL.limitForPeriod=5",
+        "resilience4j.ratelimiter.instances.productServiceRL.limitRefreshPeriod=10s"
+})
 public class ProductServiceTest {
 
     @MockitoBean
@@ -24,11 +51,25 @@ public class ProductServiceTest {
     @Autowired
     private CircuitBreakerRegistry circuitBreakerRegistry;
 
+    @Autowired
+    private RateLimiterRegistry rateLimiterRegistry;
+
+    @Autowired
+    @Qualifier("productServiceRetryBudget")
+    private RetryBudget retryBudget;
+
     @BeforeEach
     void resetCircuitBreaker() {
         circuitBreakerRegistry.circuitBreaker("productService").reset();
     }
 
+    // Each test starts with a full rate-limit window instead of whatever earlier tests left behind.
+    @BeforeEach
+    void resetRateLimiter() {
+        RateLimiter rateLimiter = rateLimiterRegistry.rateLimiter("productServiceRL");
+        rateLimiterRegistry.replace("productServiceRL", RateLimiter.of("productServiceRL", rateLimiter.getRateLimiterConfig()));
+    }
+
     @Test
     void testGetProductById_FallbackDirectly() {
         when(productClient.getProductById(1L)).thenThrow(new ExternalServiceException("Service down"));
@@ -48,4 +89,61 @@ public class ProductServiceTest {
         assertTrue(ex.getMessage().contains("The rate limit has been exceeded"));
         assertNotNull(ex.getMessage());
     }
+
+    @Test
+    void testFallbackServesLastKnownSnapshotWhenCircuitIsOpen() {
+        ProductClient.ProductResponse product = new ProductClient.ProductResponse(1L, "Laptop", 10.0, "laptop", 10);
+        when(productClient.getProductById(1L)).thenReturn(product);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        RetryBudget retryBudget = new RetryBudget("productService", meterRegistry, 0.1, 10);
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        ProductService service = new ProductService(productClient,
+                new AdaptiveConcurrencyLimiter("productService", meterRegistry, 20, 1, 200, 2.0, 0.9, 500),
+                new Hedger("productService", meterRegistry, executor, retryBudget, false, 0.95, Duration.ofMillis(10), Duration.ofSeconds(1), 200),
+                new DownstreamMetrics(meterRegistry),
+                100, Duration.ofHours(1));
+        CallNotPermittedException open = CallNotPermittedException.createCallNotPermittedException(CircuitBreaker.ofDefaults("productService"));
+
+        service.getProduct(1L);
+
+        assertEquals(product, service.productServiceFallback(1L, open));
+        ExternalServiceException ex = assertThrows(ExternalServiceException.class, () -> service.productServiceFallback(2L, open));
+        assertTrue(ex.getMessage().contains("The circuit breaker is open"));
+        assertEquals(2, meterRegistry.get("downstream.fallback").tag("branch", "breaker_open").counter().count());
+        assertEquals(1, meterRegistry.get("downstream.client.calls").tag("method", "getProductById").tag("outcome", "success").timer().count());
+    }
+
+    @Test
+    void testConfirmReservationTreatsConflictAsReleased() {
+        Request request = Request.create(Request.HttpMethod.POST, "/products/reservations/r-1/confirm", new HashMap<>(), null, StandardCharsets.UTF_8, null);
+        doThrow(new FeignException.Conflict("released", request, null, null)).when(productClient).confirmReservation("r-1");
+
+        assertThrows(ReservationReleasedException.class, () -> productService.confirmReservation("r-1"));
+    }
+
+    @Test
+    void testReserveStockMapsConflictToInsufficientStock() {
+        Request request = Request.create(Request.HttpMethod.POST, "/products/1/reservations", new HashMap<>(), null, StandardCharsets.UTF_8, null);
+        when(productClient.reserveStock(1L, 5, 900, "r-1")).thenThrow(new FeignException.Conflict("insufficient", request, null, null));
+
+        assertThrows(InsufficientStockException.class, () -> productService.reserveStock(1L, 5, Duration.ofMinutes(15), "r-1"));
+    }
+
+    // The retry spends a token and the logical call earns a tenth of one, however many attempts it took.
+    @Test
+    void testRetriedCallDepositsBudgetOnce() {
+        Request request = Request.create(Request.HttpMethod.PUT, "/products/1/stock", new HashMap<>(), null, StandardCharsets.UTF_8, null);
+        doThrow(new FeignException.ServiceUnavailable("unavailable", request, null, null))
+                .doNothing()
+                .when(productClient).decrementStock(1L, 2, "key-1");
+        while (retryBudget.getTokens() >= 4) {
+            retryBudget.tryWithdraw();
+        }
+        double before = retryBudget.getTokens();
+
+        productService.decrementStock(1L, 2, "key-1");
+
+        verify(productClient, times(2)).decrementStock(1L, 2, "key-1");
+        assertEquals(before - 1 + 0.1, retryBudget.getTokens(), 1e-9);
+    }
 }
@@ -0,0 +1,105 @@
+package com.jc.order_service.service;
+
+import com.jc.order_service.cache.ProductCache;
+import com.jc.order_service.cache.UserCache;
+import com.jc.order_service.client.ProductClient;
+import com.jc.order_service.client.UserClient;
+import com.jc.order_service.dto.OrderResult;
+import com.jc.order_service.entity.OrderStatus;
+import com.jc.order_service.exception.InsufficientStockException;
+import com.jc.order_service.exception.UserNotFoundException;
+import com.jc.order_service.model.Order;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+public class ReactiveOrderServiceTest {
+
+    @Mock
+    private OrderService orderService;
+
+    @Mock
+    private ReactiveUserService userService;
+
+    @Mock
+    private ReactiveProductService productService;
+
+    private ReactiveOrderService reactiveOrderService;
+
+    private Order order;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        UserCache userCache = new UserCache(mock(UserService.class), meterRegistry, true, 100, Duration.ofMinutes(10), Duration.ofSeconds(30));
+        ProductCache productCache = new ProductCache(mock(ProductService.class), meterRegistry, ForkJoinPool.commonPool(), true, 100,
+                Duration.ofSeconds(60), Duration.ofSeconds(45));
+        reactiveOrderService = new ReactiveOrderService(orderService, userService, productService, userCache, productCache, Schedulers.immediate());
+        order = Order.builder().userId(1L).productId(2L).quantity(3).build();
+        when(userService.getUser(1L)).thenReturn(Mono.just(new UserClient.UserResponse(1L, "John Doe", "john@example.com")));
+        when(productService.getProduct(2L)).thenReturn(Mono.just(new ProductClient.ProductResponse(2L, "Laptop", 10.0, "laptop", 5)));
+    }
+
+    @Test
+    void shouldPersistOrderOnceUserAndProductAreChecked() {
+        Order saved = Order.builder().id(7L).userId(1L).productId(2L).quantity(3).status(OrderStatus.PENDING).build();
+        when(orderService.createValidatedOrder(order, null)).thenReturn(new OrderResult(saved, false));
+
+        OrderResult result = reactiveOrderService.createOrder(order, null).block();
+
+        assertEquals(7L, result.order().getId());
+        verify(orderService, never()).findReplay(any(), any());
+    }
+
+    @Test
+    void shouldReplayKnownKeyWithoutLookups() {
+        Order saved = Order.builder().id(7L).userId(1L).productId(2L).quantity(3).build();
+        when(orderService.findReplay(order, "key-1")).thenReturn(Optional.of(new OrderResult(saved, true)));
+
+        OrderResult result = reactiveOrderService.createOrder(order, "key-1").block();
+
+        assertTrue(result.replayed());
+        verify(userService, never()).getUser(anyLong());
+        verify(orderService, never()).createValidatedOrder(any(), any());
+    }
+
+    @Test
+    void shouldRejectOrderAboveStock() {
+        order.setQuantity(6);
+
+        assertThrows(InsufficientStockException.class, () -> reactiveOrderService.createOrder(order, null).block());
+        verify(orderService, never()).createValidatedOrder(any(), any());
+    }
+
+    @Test
+    void shouldServeRepeatedLookupsFromTheCaches() {
+        when(orderService.createValidatedOrder(any(), any())).thenReturn(new OrderResult(order, false));
+
+        reactiveOrderService.createOrder(order, null).block();
+        reactiveOrderService.createOrder(order, null).block();
+
+        verify(userService, times(1)).getUser(1L);
+        verify(productService, times(1)).getProduct(2L);
+    }
+
+    @Test
+    void shouldTreatEmptyUserResponseAsNotFound() {
+        when(userService.getUser(1L)).thenReturn(Mono.empty());
+
+        assertThrows(UserNotFoundException.class, () -> reactiveOrderService.createOrder(order, null).block());
+    }
+}
@@ -0,0 +1,74 @@
+package com.jc.order_service.service;
+
+import com.jc.order_service.client.ReactiveUserClient;
+import com.jc.order_service.client.UserClient;
+import com.jc.order_service.exception.ExternalServiceException;
+import com.jc.order_service.exception.UserNotFoundException;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest(properties = "order.reactive.enabled=true")
+public class ReactiveUserServiceTest {
+
+    @MockitoBean
+    private ReactiveUserClient userClient;
+
+    @Autowired
+    private ReactiveUserService userService;
+
+    @Autowired
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+
+    @Autowired
+    private RateLimiterRegistry rateLimiterRegistry;
+
+    @BeforeEach
+    void resetResilience() {
+        circuitBreakerRegistry.circuitBreaker("userService").reset();
+        RateLimiter rateLimiter = rateLimiterRegistry.rateLimiter("userServiceRL");
+        rateLimiterRegistry.replace("userServiceRL", RateLimiter.of("userServiceRL", rateLimiter.getRateLimiterConfig()));
+    }
+
+    @Test
+    void shouldReturnUser() {
+        when(userClient.getUserById(1L)).thenReturn(Mono.just(new UserClient.UserResponse(1L, "John Doe", "john@example.com")));
+
+        assertEquals("John Doe", userService.getUser(1L).block().name());
+    }
+
+    @Test
+    void shouldMapNotFoundToUserNotFound() {
+        when(userClient.getUserById(1L)).thenReturn(Mono.error(
+                WebClientResponseException.create(404, "Not Found", HttpHeaders.EMPTY, new byte[0], null)));
+
+        assertThrows(UserNotFoundException.class, () -> userService.getUser(1L).block());
+    }
+
+    @Test
+    void shouldRetryTransientFailuresOnResubscribe() {
+        AtomicInteger attempts = new AtomicInteger();
+        when(userClient.getUserById(1L)).thenReturn(Mono.defer(() -> {
+            attempts.incrementAndGet();
+            return Mono.error(WebClientResponseException.create(503, "Service Unavailable", HttpHeaders.EMPTY, new byte[0], null));
+        }));
+
+        ExternalServiceException ex = assertThrows(ExternalServiceException.class, () -> userService.getUser(1L).block());
+
+        assertTrue(ex.getMessage().contains("User service"));
+        assertTrue(attempts.get() > 1);
+    }
+}
@@ -3,6 +3,8 @@ package com.jc.order_service.service;
 import com.jc.order_service.client.UserClient;
 import com.jc.order_service.exception.ExternalServiceException;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
 import io.github.resilience4j.ratelimiter.RequestNotPermitted;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,7 +15,11 @@ import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
-@SpringBootTest
+// A tight limit so the guard can be seen tripping; the shipped one sits far above capacity.
+@SpringBootTest(properties = {
+        "resilience4j.ratelimiter.instances.userServiceRL.limitForPeriod=5",
+        "resilience4j.ratelimiter.instances.userServiceRL.limitRefreshPeriod=10s"
+})
 public class UserServiceTest {
 
     @MockitoBean
@@ -25,11 +31,21 @@ public class UserServiceTest {
     @Autowired
     private CircuitBreakerRegistry circuitBreakerRegistry;
 
+    @Autowired
+    private RateLimiterRegistry rateLimiterRegistry;
+
     @BeforeEach
     void resetCircuitBreaker() {
         circuitBreakerRegistry.circuitBreaker("userService").reset();
     }
 
+    // Each test starts with a full rate-limit window instead of whatever earlier tests left behind.
+    @BeforeEach
+    void resetRateLimiter() {
+        RateLimiter rateLimiter = rateLimiterRegistry.rateLimiter("userServiceRL");
+        rateLimiterRegistry.replace("userServiceRL", RateLimiter.of("userServiceRL", rateLimiter.getRateLimiterConfig()));
+    }
+
     @Test
     void testGetUserById_Success() {
         UserClient.UserResponse mockUser = new UserClient.UserResponse(1L, "John Doe", "john@example.com");
@@ -0,0 +1,142 @@
+package com.jc.order_service.summary;
+
+import com.jc.order_service.entity.OrderStatus;
+import com.jc.order_service.model.ArchivedOrder;
+import com.jc.order_service.model.Order;
+import com.jc.order_service.model.UserOrderSummary;
+import com.jc.order_service.repository.ArchivedOrderRepository;
+import com.jc.order_service.repository.OrderRepository;
+import com.jc.order_service.repository.UserOrderSummaryRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Not transactional: ensureRows creates summary rows in their own transaction, which a rolled back test transaction
+// would not undo.
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(OrderSummaryProjector.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class OrderSummaryProjectorTest {
+
+    @Autowired
+    private OrderSummaryProjector projector;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    @Autowired
+    private UserOrderSummaryRepository summaryRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void cleanUp() {
+        orderRepository.deleteAllInBatch();
+        archivedOrderRepository.deleteAllInBatch();
+        summaryRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void shouldTrackOrdersIncrementally() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        projector.ensureRows(List.of(1L, 2L));
+        List<Order> saved = tx.execute(status -> {
+            List<Order> orders = orderRepository.insertAll(List.of(
+                    Order.builder().userId(1L).productId(10L).quantity(2).build(),
+                    Order.builder().userId(1L).productId(11L).quantity(3).build(),
+                    Order.builder().userId(2L).productId(10L).quantity(1).build()));
+            projector.ordersAdded(orders);
+            return orders;
+        });
+        tx.executeWithoutResult(status -> projector.quantityChanged(1L, 4));
+
+        UserOrderSummary summary = projector.get(1L);
+        assertEquals(2, summary.getOrderCount());
+        assertEquals(9, summary.getTotalQuantity());
+        assertEquals(storedCreatedAt(saved.get(1)), summary.getLastOrderAt());
+        assertEquals(1, projector.get(2L).getOrderCount());
+        assertEquals(0, projector.get(3L).getOrderCount());
+    }
+
+    @Test
+    void shouldWriteMissingRowInTheOrderTransaction() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        assertThrows(IllegalStateException.class, () -> tx.executeWithoutResult(status -> {
+            projector.ordersAdded(orderRepository.insertAll(List.of(Order.builder().userId(4L).productId(10L).quantity(2).build())));
+            throw new IllegalStateException("order transaction failed");
+        }));
+        assertFalse(summaryRepository.existsById(4L));
+
+        tx.executeWithoutResult(status ->
+                projector.ordersAdded(orderRepository.insertAll(List.of(Order.builder().userId(4L).productId(10L).quantity(2).build()))));
+        assertEquals(1, projector.get(4L).getOrderCount());
+        assertEquals(2, projector.get(4L).getTotalQuantity());
+    }
+
+    @Test
+    void shouldRecomputeLastOrderTimeWhenOrderIsRemoved() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        List<Order> saved = tx.execute(status -> {
+            Order first = orderRepository.save(Order.builder().userId(1L).productId(10L).quantity(2).build());
+            Order second = orderRepository.save(Order.builder().userId(1L).productId(11L).quantity(3).build());
+            List<Order> orders = List.of(first, second);
+            projector.ordersAdded(orders);
+            return orders;
+        });
+        assertEquals(storedCreatedAt(saved.get(1)), projector.get(1L).getLastOrderAt());
+
+        tx.executeWithoutResult(status -> {
+            orderRepository.deleteById(saved.get(1).getId());
+            projector.orderRemoved(saved.get(1));
+        });
+
+        UserOrderSummary summary = projector.get(1L);
+        assertEquals(1, summary.getOrderCount());
+        assertEquals(2, summary.getTotalQuantity());
+        assertEquals(storedCreatedAt(saved.get(0)), summary.getLastOrderAt());
+    }
+
+    @Test
+    void shouldRebuildSummariesFromOrders() {
+        orderRepository.insertAll(List.of(
+                Order.builder().userId(1L).productId(10L).quantity(2).build(),
+                Order.builder().userId(1L).productId(11L).quantity(3).build(),
+                Order.builder().userId(2L).productId(10L).quantity(1).build()));
+        archivedOrderRepository.save(ArchivedOrder.builder().id(1000L).userId(1L).productId(10L).quantity(4)
+                .status(OrderStatus.DELIVERED).createdAt(LocalDateTime.now().minusDays(100)).build());
+        archivedOrderRepository.save(ArchivedOrder.builder().id(1001L).userId(4L).productId(10L).quantity(6)
+                .status(OrderStatus.CANCELLED).createdAt(LocalDateTime.now().minusDays(100)).build());
+        summaryRepository.save(new UserOrderSummary(3L, 7L, 7L, null));
+
+        assertEquals(3, projector.rebuild());
+
+        assertEquals(3, projector.get(1L).getOrderCount());
+        assertEquals(9, projector.get(1L).getTotalQuantity());
+        assertEquals(1, projector.get(2L).getTotalQuantity());
+        assertEquals(6, projector.get(4L).getTotalQuantity());
+        assertFalse(summaryRepository.existsById(3L));
+    }
+
+    // Read back from the table, which keeps microseconds where the in-memory entity may carry nanoseconds.
+    private LocalDateTime storedCreatedAt(Order order) {
+        return orderRepository.findById(order.getId()).orElseThrow().getCreatedAt();
+    }
+}
@@ -1,21 +1,46 @@
 package com.jc.product_service.controller;
 
+import com.jc.product_service.dto.ProductPage;
+import com.jc.product_service.dto.ProductSearchHit;
+import com.jc.product_service.dto.ProductSort;
+import com.jc.product_service.dto.StockBatchRequest;
+import com.jc.product_service.dto.StockLineResult;
 import com.jc.product_service.model.Product;
+import com.jc.product_service.model.StockReservation;
 import com.jc.product_service.service.ProductService;
+import com.jc.product_service.service.StockReservationService;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
+import java.util.Locale;
 
 @RestController
 @RequestMapping("/products")
 public class ProductController {
 
     private final ProductService productService;
+    private final StockReservationService reservationService;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+    private final int defaultSearchResults;
+    private final int maxSearchResults;
 
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, StockReservationService reservationService,
+                             @Value("${product.listing.default-page-size:50}") int defaultPageSize,
+                             @Value("${product.listing.max-page-size:200}") int maxPageSize,
+                             @Value("${product.search.default-results:20}") int defaultSearchResults,
+                             @Value("${product.search.max-results:100}") int maxSearchResults) {
         this.productService = productService;
+        this.reservationService = reservationService;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+        this.defaultSearchResults = defaultSearchResults;
+        this.maxSearchResults = maxSearchResults;
     }
 
     @PostMapping
@@ -24,13 +49,32 @@ public class ProductController {
     }
 
     @GetMapping
-    public ResponseEntity<List<Product>> getAllProducts() {
-        return ResponseEntity.ok(productService.getAllProducts());
+    public ResponseEntity<ProductPage> getProducts(@RequestParam(defaultValue = "id") String sort,
+                                                   @RequestParam(defaultValue = "asc") String direction,
+                                                   @RequestParam(required = false) List<String> fields,
+                                                   @RequestParam(required = false) String cursor,
+                                                   @RequestParam(required = false) Integer limit,
+                                                   WebRequest request) {
+        int pageSize = limit == null ? defaultPageSize : Math.clamp(limit, 1, maxPageSize);
+        ProductPage page = productService.getProducts(fields, ProductSort.of(sort), descending(direction), cursor, pageSize);
+        return request.checkNotModified(page.version()) ? null : ResponseEntity.ok(page);
     }
 
+    @GetMapping("/search")
+    public ResponseEntity<List<ProductSearchHit>> searchProducts(@RequestParam String q,
+                                                                 @RequestParam(required = false) Integer limit) {
+        int results = limit == null ? defaultSearchResults : Math.clamp(limit, 1, maxSearchResults);
+        return ResponseEntity.ok(productService.searchProducts(q, results));
+    }
+
+    // A conditional GET first checks the version alone and answers 304 without loading the product.
     @GetMapping("/{id}")
-    public ResponseEntity<Product> getProductById(@PathVariable Long id) {
-        return ResponseEntity.ok(productService.getProductById(id));
+    public ResponseEntity<Product> getProductById(@PathVariable Long id, WebRequest request) {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null && request.checkNotModified(productService.getProductETag(id))) {
+            return null;
+        }
+        Product product = productService.getProductById(id);
+        return request.checkNotModified(productService.getProductETag(product)) ? null : ResponseEntity.ok(product);
     }
 
     @PutMapping("/{id}")
@@ -39,16 +83,44 @@ public class ProductController {
     }
 
     @PostMapping("/{id}/decrement-stock")
-    public ResponseEntity<String> decrementStock(@PathVariable Long id, @RequestParam int quantity) {
-        Product product = productService.getProductById(id);
-        if (product.getStock() < quantity) {
-            return ResponseEntity.badRequest().body("Insufficient stock for product ID: " + id);
-        }
-        product.setStock(product.getStock() - quantity);
-        productService.updateProduct(product.getId(), product);
+    public ResponseEntity<String> decrementStock(@PathVariable Long id, @RequestParam int quantity,
+                                                 @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        productService.decrementStock(id, quantity, idempotencyKey);
         return ResponseEntity.ok("Stock updated successfully");
     }
 
+    @PostMapping("/stock/decrement-batch")
+    public ResponseEntity<List<StockLineResult>> decrementStockBatch(@Valid @RequestBody StockBatchRequest request,
+                                                                     @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return ResponseEntity.ok(productService.decrementStockBatch(request.lines(), idempotencyKey));
+    }
+
+    // The idempotency key is the reservation id: a retried request gets back the reservation it already made.
+    @PostMapping("/{id}/reservations")
+    public ResponseEntity<StockReservation> reserveStock(@PathVariable Long id, @RequestParam int quantity,
+                                                         @RequestParam(required = false) Integer ttlSeconds,
+                                                         @RequestHeader("Idempotency-Key") String reservationId) {
+        return ResponseEntity.ok(reservationService.reserve(id, quantity, reservationId, ttlSeconds));
+    }
+
+    @PostMapping("/reservations/{reservationId}/confirm")
+    public ResponseEntity<StockReservation> confirmReservation(@PathVariable String reservationId) {
+        return ResponseEntity.ok(reservationService.confirm(reservationId));
+    }
+
+    @PostMapping("/reservations/{reservationId}/release")
+    public ResponseEntity<StockReservation> releaseReservation(@PathVariable String reservationId) {
+        return ResponseEntity.ok(reservationService.release(reservationId));
+    }
+
+    private static boolean descending(String direction) {
+        return switch (direction.toLowerCase(Locale.ROOT)) {
+            case "asc" -> false;
+            case "desc" -> true;
+            default -> throw new IllegalArgumentException("Unknown direction: " + direction + ", expected asc or desc");
+        };
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteProduct(@PathVariable Long id) {
         productService.deleteProduct(id);
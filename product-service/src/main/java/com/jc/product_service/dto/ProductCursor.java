@@ -0,0 +1,32 @@
+package com.jc.product_service.dto;
+
+import com.jc.product_service.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Position of the last product on a page, together with the order it was read in: a cursor only continues the
+// listing it came from. The sort value goes last because a name may contain the separator.
+public record ProductCursor(ProductSort sort, boolean descending, Long id, String value) {
+
+    public String encode() {
+        String raw = sort + "|" + descending + "|" + id + "|" + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public Object sortValue() {
+        return sort.parse(value);
+    }
+
+    public static ProductCursor decode(String token) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\|", 4);
+            ProductCursor cursor = new ProductCursor(ProductSort.valueOf(parts[0]), Boolean.parseBoolean(parts[1]),
+                    Long.parseLong(parts[2]), parts[3]);
+            cursor.sortValue();
+            return cursor;
+        } catch (RuntimeException ex) {
+            throw new InvalidCursorException(token);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.jc.product_service.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.util.List;
+import java.util.Map;
+
+// Products carry only the requested fields, so they are plain maps rather than entities. The version identifies the
+// page's content (ids and row versions) and is sent as its ETag rather than in the body.
+public record ProductPage(List<Map<String, Object>> products, String nextCursor, @JsonIgnore String version) {
+}
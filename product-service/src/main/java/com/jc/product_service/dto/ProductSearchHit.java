@@ -0,0 +1,5 @@
+package com.jc.product_service.dto;
+
+// Served from the search index, which does not track stock.
+public record ProductSearchHit(Long id, String name, String description, Double price, double score) {
+}
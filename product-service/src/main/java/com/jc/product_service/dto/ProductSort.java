@@ -0,0 +1,30 @@
+package com.jc.product_service.dto;
+
+import java.util.Locale;
+
+// Sortable listing columns. Every sort is made unique by the product id, which keyset paging relies on.
+public enum ProductSort {
+    ID,
+    PRICE,
+    NAME;
+
+    public String property() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    public Object parse(String value) {
+        return switch (this) {
+            case ID -> Long.valueOf(value);
+            case PRICE -> Double.valueOf(value);
+            case NAME -> value;
+        };
+    }
+
+    public static ProductSort of(String value) {
+        try {
+            return valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Unknown sort: " + value + ", expected one of id, price, name");
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.jc.product_service.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+public record StockBatchRequest(@NotEmpty List<@Valid StockLine> lines) {
+}
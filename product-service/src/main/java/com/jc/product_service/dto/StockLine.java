@@ -0,0 +1,7 @@
+package com.jc.product_service.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+public record StockLine(@NotNull Long productId, @NotNull @Positive Integer quantity) {
+}
@@ -0,0 +1,12 @@
+package com.jc.product_service.dto;
+
+// ROLLED_BACK marks a line that had enough stock but was undone because another line of the same batch failed.
+public record StockLineResult(Long productId, int quantity, Status status) {
+
+    public enum Status {
+        APPLIED,
+        ROLLED_BACK,
+        INSUFFICIENT_STOCK,
+        PRODUCT_NOT_FOUND
+    }
+}
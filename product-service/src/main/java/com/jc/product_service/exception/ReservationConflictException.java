@@ -0,0 +1,7 @@
+package com.jc.product_service.exception;
+
+public class ReservationConflictException extends RuntimeException {
+    public ReservationConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,19 @@
+package com.jc.product_service.exception;
+
+import com.jc.product_service.dto.StockLineResult;
+
+import java.util.List;
+
+public class StockBatchRejectedException extends RuntimeException {
+
+    private final List<StockLineResult> lines;
+
+    public StockBatchRejectedException(List<StockLineResult> lines) {
+        super("Stock batch rejected, no line was applied");
+        this.lines = lines;
+    }
+
+    public List<StockLineResult> getLines() {
+        return lines;
+    }
+}
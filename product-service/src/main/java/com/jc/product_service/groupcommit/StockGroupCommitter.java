@@ -0,0 +1,219 @@
+package com.jc.product_service.groupcommit;
+
+import com.jc.product_service.exception.ProductNotFoundException;
+import com.jc.product_service.model.StockOperation;
+import com.jc.product_service.repository.ProductRepository;
+import com.jc.product_service.repository.StockOperationRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Opt-in group commit for stock decrements. Requests for the same product queue up for one batch window; a single
+// writer per product then decides them in arrival order against the current stock, applies the accepted total with
+// one conditional UPDATE and commits once for the whole batch. Each caller gets its own answer: a request that does
+// not fit is refused without holding back the smaller ones behind it.
+@Component
+public class StockGroupCommitter {
+
+    private static final int MAX_APPLY_ATTEMPTS = 3;
+
+    private final ProductRepository productRepository;
+    private final StockOperationRepository stockOperationRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Duration window;
+    private final Duration timeout;
+    private final int maxBatchSize;
+    private final ScheduledExecutorService writers;
+    private final Map<Long, Lane> lanes = new ConcurrentHashMap<>();
+    private final DistributionSummary batchSize;
+    private final Timer waitTimer;
+
+    public StockGroupCommitter(ProductRepository productRepository,
+                               StockOperationRepository stockOperationRepository,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry,
+                               @Value("${product.group-commit.enabled:false}") boolean enabled,
+                               @Value("${product.group-commit.window:2ms}") Duration window,
+                               @Value("${product.group-commit.timeout:5s}") Duration timeout,
+                               @Value("${product.group-commit.max-batch-size:100}") int maxBatchSize,
+                               @Value("${product.group-commit.writer-threads:4}") int writerThreads) {
+        this.productRepository = productRepository;
+        this.stockOperationRepository = stockOperationRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.window = window;
+        this.timeout = timeout;
+        this.maxBatchSize = maxBatchSize;
+        this.writers = Executors.newScheduledThreadPool(writerThreads, Thread.ofPlatform().name("stock-writer-", 0).daemon().factory());
+        this.batchSize = DistributionSummary.builder("product.stock.batch.size").register(meterRegistry);
+        this.waitTimer = Timer.builder("product.stock.batch.wait").publishPercentileHistogram().register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Completes with true once the decrement is committed (or was already applied under the same operation id) and
+    // with false when there was not enough stock. Fails with a TimeoutException when no writer got to it in time; a
+    // request that times out before its batch is taken is dropped, one already in a batch may still be applied, which
+    // a retry under the same operation id then answers without decrementing twice.
+    public CompletableFuture<Boolean> decrement(Long productId, int quantity, String operationId) {
+        Pending pending = new Pending(quantity, operationId, System.nanoTime(), new CompletableFuture<>());
+        pending.result().orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        lanes.computeIfAbsent(productId, Lane::new).submit(pending);
+        return pending.result();
+    }
+
+    // Windows already scheduled still run; whatever is left queued after that fails instead of waiting forever.
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        writers.shutdown();
+        writers.awaitTermination(5, TimeUnit.SECONDS);
+        lanes.values().forEach(lane -> lane.failQueued(new IllegalStateException("Stock group commit is shut down")));
+    }
+
+    private void apply(Long productId, List<Pending> batch) {
+        batchSize.record(batch.size());
+        try {
+            List<Boolean> outcomes = null;
+            for (int attempt = 0; attempt < MAX_APPLY_ATTEMPTS && outcomes == null; attempt++) {
+                outcomes = transactionTemplate.execute(tx -> decide(productId, batch));
+            }
+            if (outcomes == null) {
+                throw new IllegalStateException("Stock of product " + productId + " kept changing under the batch writer");
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                complete(batch.get(i), outcomes.get(i), null);
+            }
+        } catch (RuntimeException ex) {
+            batch.forEach(pending -> complete(pending, null, ex));
+        }
+    }
+
+    // Returns null when the stock changed between the read and the update (another path or instance wrote the row);
+    // the transaction then commits nothing and the batch is decided again.
+    private List<Boolean> decide(Long productId, List<Pending> batch) {
+        int stock = productRepository.findStockById(productId)
+                .orElseThrow(() -> new ProductNotFoundException("Product with ID: " + productId + " not found"));
+        Set<String> applied = new HashSet<>();
+        stockOperationRepository.findAllById(batch.stream().map(Pending::operationId).filter(id -> id != null).toList())
+                .forEach(operation -> applied.add(operation.getId()));
+
+        List<Boolean> outcomes = new ArrayList<>(batch.size());
+        List<StockOperation> operations = new ArrayList<>();
+        int remaining = stock;
+        LocalDateTime now = LocalDateTime.now();
+        for (Pending pending : batch) {
+            if (pending.operationId() != null && !applied.add(pending.operationId())) {
+                outcomes.add(true);
+            } else if (pending.quantity() <= remaining) {
+                remaining -= pending.quantity();
+                outcomes.add(true);
+                if (pending.operationId() != null) {
+                    operations.add(new StockOperation(pending.operationId(), productId, pending.quantity(), now));
+                }
+            } else {
+                outcomes.add(false);
+            }
+        }
+        int total = stock - remaining;
+        if (total > 0 && productRepository.decrementIfAvailable(productId, total) == 0) {
+            return null;
+        }
+        stockOperationRepository.saveAll(operations);
+        return outcomes;
+    }
+
+    private void complete(Pending pending, Boolean outcome, RuntimeException failure) {
+        waitTimer.record(System.nanoTime() - pending.enqueuedAt(), TimeUnit.NANOSECONDS);
+        if (failure != null) {
+            pending.result().completeExceptionally(failure);
+        } else {
+            pending.result().complete(outcome);
+        }
+    }
+
+    private record Pending(int quantity, String operationId, long enqueuedAt, CompletableFuture<Boolean> result) {
+    }
+
+    // At most one drain per product is scheduled or running at any time, which makes it the product's single writer.
+    private final class Lane {
+
+        private final Long productId;
+        private final Queue<Pending> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private Lane(Long productId) {
+            this.productId = productId;
+        }
+
+        void submit(Pending pending) {
+            queue.add(pending);
+            schedule();
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    writers.schedule(this::drain, window.toNanos(), TimeUnit.NANOSECONDS);
+                } catch (RejectedExecutionException ex) {
+                    scheduled.set(false);
+                    failQueued(new IllegalStateException("Stock group commit is shut down", ex));
+                }
+            }
+        }
+
+        void failQueued(RuntimeException failure) {
+            Pending pending;
+            while ((pending = queue.poll()) != null) {
+                complete(pending, null, failure);
+            }
+        }
+
+        // A backlog is worked off in full batches back to back; only a fresh request waits for a new window.
+        private void drain() {
+            try {
+                do {
+                    List<Pending> batch = new ArrayList<>(maxBatchSize);
+                    Pending next;
+                    while (batch.size() < maxBatchSize && (next = queue.poll()) != null) {
+                        if (!next.result().isDone()) {
+                            batch.add(next);
+                        }
+                    }
+                    if (!batch.isEmpty()) {
+                        apply(productId, batch);
+                    }
+                } while (!queue.isEmpty());
+            } finally {
+                scheduled.set(false);
+            }
+            if (!queue.isEmpty()) {
+                schedule();
+            }
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.jc.product_service.hotstock;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Opt-in stock counters for flash-sale products, so decrements stop queueing on a single row lock.
+//
+// The counters only ever sell stock that has already left the products row: the flusher moves it over in chunks
+// (a committed conditional UPDATE) and hands back any surplus, and shutdown returns whatever is left. Overselling is
+// therefore impossible, even across a crash. A crash strands at most the stock the counters held at that moment,
+// which shows up as missing stock and is put back with a stock update. A restarted instance starts with empty
+// counters and refills from the row, i.e. from the last persisted value.
+//
+// As the row runs low, no instance holds more than the row has left, so one instance cannot sit on the last units
+// while the others refuse orders.
+@Component
+public class HotStockCounters {
+
+    private static final Logger logger = LoggerFactory.getLogger(HotStockCounters.class);
+
+    // Eight longs per stripe keep two stripes off the same cache line.
+    private static final int PADDING = 8;
+
+    private final HotStockStore store;
+    private final Set<Long> productIds;
+    private final int stripes;
+    private final int chunkSize;
+    private final Map<Long, Counter> counters = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    public HotStockCounters(HotStockStore store,
+                            @Value("${product.hot-stock.enabled:false}") boolean enabled,
+                            @Value("${product.hot-stock.product-ids:}") Set<Long> productIds,
+                            @Value("${product.hot-stock.stripes:16}") int stripes,
+                            @Value("${product.hot-stock.chunk-size:500}") int chunkSize) {
+        this.store = store;
+        this.productIds = enabled ? Set.copyOf(productIds) : Set.of();
+        this.stripes = stripes;
+        this.chunkSize = chunkSize;
+        this.productIds.forEach(this::counter);
+    }
+
+    public boolean handles(Long productId) {
+        return !closed && productIds.contains(productId);
+    }
+
+    // Inside a transaction the units go back to the counters if it rolls back.
+    public boolean take(Long productId, int quantity) {
+        if (!counter(productId).take(quantity)) {
+            return false;
+        }
+        afterCompletion(productId, quantity, TransactionSynchronization.STATUS_ROLLED_BACK);
+        return true;
+    }
+
+    // Inside a transaction the units are only returned once it commits.
+    public void giveBack(Long productId, int quantity) {
+        afterCompletion(productId, quantity, TransactionSynchronization.STATUS_COMMITTED);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            counter(productId).add(quantity);
+        }
+    }
+
+    // The row was rewritten (stock update or delete), so whatever the counters hold no longer belongs to anyone.
+    public void discard(Long productId) {
+        Runnable discard = () -> {
+            Counter counter = counters.get(productId);
+            if (counter != null) {
+                counter.discard();
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    discard.run();
+                }
+            });
+        } else {
+            discard.run();
+        }
+    }
+
+    public long available(Long productId) {
+        Counter counter = counters.get(productId);
+        return counter == null ? 0 : counter.sum();
+    }
+
+    // Keeps every counter between half a chunk and two chunks: refills ahead of demand, returns what a cooled-down
+    // product no longer needs. A counter holding more than the row has left hands half the difference back, so the
+    // holdings of all instances converge on equal shares of the remaining stock.
+    @Scheduled(fixedDelayString = "${product.hot-stock.flush-interval-ms:200}")
+    public void flush() {
+        if (!closed) {
+            counters.values().forEach(Counter::rebalance);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        closed = true;
+        counters.values().forEach(Counter::returnAll);
+    }
+
+    private Counter counter(Long productId) {
+        return counters.computeIfAbsent(productId, Counter::new);
+    }
+
+    private void afterCompletion(Long productId, int quantity, int status) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int completed) {
+                    if (completed == status) {
+                        counter(productId).add(quantity);
+                    }
+                }
+            });
+        }
+    }
+
+    // Decrements are a CAS on the caller's stripe, falling back to the other stripes. Only when no single stripe can
+    // cover the quantity does a caller take the lock, pool all stripes and, if needed, pull more stock from the row.
+    private final class Counter {
+
+        private final Long productId;
+        private final AtomicLongArray cells = new AtomicLongArray(stripes * PADDING);
+
+        private Counter(Long productId) {
+            this.productId = productId;
+        }
+
+        boolean take(int quantity) {
+            int start = ThreadLocalRandom.current().nextInt(stripes);
+            for (int i = 0; i < stripes; i++) {
+                if (tryStripe((start + i) % stripes, quantity)) {
+                    return true;
+                }
+            }
+            return takeSlow(quantity);
+        }
+
+        private boolean tryStripe(int stripe, int quantity) {
+            int index = stripe * PADDING;
+            long value = cells.get(index);
+            while (value >= quantity) {
+                if (cells.compareAndSet(index, value, value - quantity)) {
+                    return true;
+                }
+                value = cells.get(index);
+            }
+            return false;
+        }
+
+        private synchronized boolean takeSlow(int quantity) {
+            long pooled = drain();
+            if (pooled < quantity && !closed) {
+                pooled += store.grant(productId, (int) (quantity - pooled), chunkSize);
+            }
+            if (pooled < quantity) {
+                spread(pooled);
+                return false;
+            }
+            spread(pooled - quantity);
+            return true;
+        }
+
+        void add(long amount) {
+            if (closed) {
+                store.giveBack(productId, (int) amount);
+                return;
+            }
+            cells.getAndAdd(ThreadLocalRandom.current().nextInt(stripes) * PADDING, amount);
+        }
+
+        long sum() {
+            long sum = 0;
+            for (int i = 0; i < stripes; i++) {
+                sum += cells.get(i * PADDING);
+            }
+            return sum;
+        }
+
+        synchronized void rebalance() {
+            long held = sum();
+            long row = store.stock(productId);
+            if (held > row) {
+                long pooled = drain();
+                long surplus = Math.min(pooled, (held - row + 1) / 2);
+                spread(pooled - surplus);
+                store.giveBack(productId, (int) surplus);
+            } else if (held < chunkSize / 2) {
+                spread(store.grant(productId, 0, (int) (chunkSize - held)));
+            } else if (held > 2L * chunkSize) {
+                long pooled = drain();
+                long surplus = pooled - chunkSize;
+                spread(chunkSize);
+                store.giveBack(productId, (int) surplus);
+            }
+        }
+
+        synchronized void returnAll() {
+            long pooled = drain();
+            store.giveBack(productId, (int) pooled);
+            if (pooled > 0) {
+                logger.info("Returned {} units of product {} from the hot stock counters", pooled, productId);
+            }
+        }
+
+        synchronized void discard() {
+            drain();
+        }
+
+        private long drain() {
+            long pooled = 0;
+            for (int i = 0; i < stripes; i++) {
+                pooled += cells.getAndSet(i * PADDING, 0);
+            }
+            return pooled;
+        }
+
+        private void spread(long amount) {
+            long share = amount / stripes;
+            for (int i = 0; i < stripes; i++) {
+                cells.getAndAdd(i * PADDING, i == 0 ? share + amount % stripes : share);
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.jc.product_service.hotstock;
+
+import com.jc.product_service.repository.ProductRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Moves stock between a product row and the in-memory counters. Each move commits on its own, whatever transaction
+// the caller is in: stock handed to the counters must never come back because some unrelated request rolled back.
+@Component
+public class HotStockStore {
+
+    private static final int MAX_GRANT_ATTEMPTS = 3;
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public HotStockStore(ProductRepository productRepository, PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // Takes up to the needed amount out of the row, plus a prefetch of at most half of what would be left, and returns
+    // what was actually taken. The halving leaves every other instance a share of the row as it runs out.
+    public int grant(Long productId, int needed, int prefetch) {
+        for (int attempt = 0; attempt < MAX_GRANT_ATTEMPTS; attempt++) {
+            Integer granted = transactionTemplate.execute(tx -> {
+                int available = productRepository.findStockById(productId).orElse(0);
+                int amount = Math.min(needed, available) + Math.clamp(Math.min(prefetch, (available - needed) / 2), 0, prefetch);
+                if (amount <= 0) {
+                    return 0;
+                }
+                return productRepository.decrementIfAvailable(productId, amount) == 1 ? amount : null;
+            });
+            if (granted != null) {
+                return granted;
+            }
+        }
+        return 0;
+    }
+
+    public int stock(Long productId) {
+        return productRepository.findStockById(productId).orElse(0);
+    }
+
+    public void giveBack(Long productId, int amount) {
+        if (amount > 0) {
+            transactionTemplate.executeWithoutResult(tx -> productRepository.incrementStock(productId, amount));
+        }
+    }
+}
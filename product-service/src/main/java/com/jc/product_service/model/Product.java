@@ -9,7 +9,10 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        @Index(name = "idx_products_price_id", columnList = "price, id"),
+        @Index(name = "idx_products_name_id", columnList = "name, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -31,5 +34,10 @@ public class Product {
     @NotNull(message = "Stock quantity is required")
     private Integer stock;
 
+    // Bumped on every change, stock updates included; it is the product's ETag. The default fills existing rows.
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
 
 }
@@ -0,0 +1,7 @@
+package com.jc.product_service.model;
+
+public enum ReservationStatus {
+    RESERVED,
+    CONFIRMED,
+    RELEASED
+}
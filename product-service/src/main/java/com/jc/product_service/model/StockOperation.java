@@ -0,0 +1,28 @@
+package com.jc.product_service.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "stock_operations")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockOperation {
+
+    @Id
+    private String id;
+
+    private Long productId;
+
+    private Integer quantity;
+
+    private LocalDateTime appliedAt;
+
+}
@@ -0,0 +1,35 @@
+package com.jc.product_service.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Stock held for a caller until it is confirmed, released, or expires. The id is chosen by the caller so a retried
+// reservation finds the one it already made.
+@Entity
+@Table(name = "stock_reservations", indexes = @Index(name = "idx_stock_reservations_status_expires", columnList = "status, expiresAt"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockReservation {
+
+    @Id
+    private String id;
+
+    private Long productId;
+
+    private Integer quantity;
+
+    @Enumerated(EnumType.STRING)
+    private ReservationStatus status;
+
+    private LocalDateTime expiresAt;
+
+    private LocalDateTime createdAt;
+
+}
@@ -2,6 +2,27 @@ package com.jc.product_service.repository;
 
 import com.jc.product_service.model.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Optional;
+
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductRepositoryCustom {
+
+    @Query("select p.stock from Product p where p.id = :id")
+    Optional<Integer> findStockById(Long id);
+
+    @Query("select p.version from Product p where p.id = :id")
+    Optional<Long> findVersionById(Long id);
+
+    // Check and decrement in one statement: the row lock is held only for the update itself. Bulk updates skip
+    // Hibernate's versioning, so they bump the version themselves.
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("update Product p set p.stock = p.stock - :quantity, p.version = p.version + 1 where p.id = :id and p.stock >= :quantity")
+    int decrementIfAvailable(Long id, int quantity);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("update Product p set p.stock = p.stock + :quantity, p.version = p.version + 1 where p.id = :id")
+    int incrementStock(Long id, int quantity);
 
-public interface ProductRepository extends JpaRepository<Product, Long> {
 }
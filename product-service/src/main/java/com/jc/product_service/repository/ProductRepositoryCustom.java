@@ -0,0 +1,23 @@
+package com.jc.product_service.repository;
+
+import com.jc.product_service.dto.ProductCursor;
+import com.jc.product_service.dto.ProductSort;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+public interface ProductRepositoryCustom {
+
+    // Product columns a listing can select, in response order.
+    List<String> LISTING_FIELDS = List.of("id", "name", "description", "price", "stock", "version");
+
+    // Affected row counts, one per entry in the map's iteration order.
+    int[] decrementAllIfAvailable(SortedMap<Long, Integer> quantityByProduct);
+
+    // Rows hold the requested fields plus id and the sort column, which the next cursor is built from, and the version,
+    // which the page's ETag is built from.
+    List<Map<String, Object>> findPage(Collection<String> fields, ProductSort sort, boolean descending, ProductCursor after, int limit);
+
+}
@@ -0,0 +1,99 @@
+package com.jc.product_service.repository;
+
+import com.jc.product_service.dto.ProductCursor;
+import com.jc.product_service.dto.ProductSort;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TupleElement;
+import jakarta.persistence.TypedQuery;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+// A bulk JPQL update has no batched form, so multi-product decrements go to JDBC as one batch: one round trip for
+// the whole cart. Callers must treat any count other than a positive one as "not applied".
+public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+
+    private static final String DECREMENT_SQL = "UPDATE products SET stock = stock - ?, version = version + 1 WHERE id = ? AND stock >= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+
+    public ProductRepositoryCustomImpl(JdbcTemplate jdbcTemplate, EntityManager entityManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public int[] decrementAllIfAvailable(SortedMap<Long, Integer> quantityByProduct) {
+        List<Map.Entry<Long, Integer>> lines = new ArrayList<>(quantityByProduct.entrySet());
+        return jdbcTemplate.batchUpdate(DECREMENT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Map.Entry<Long, Integer> line = lines.get(i);
+                ps.setInt(1, line.getValue());
+                ps.setLong(2, line.getKey());
+                ps.setInt(3, line.getValue());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return lines.size();
+            }
+        });
+    }
+
+    // Keyset pagination over (sort column, id), continuing strictly after the cursor so deep pages cost the same as
+    // the first. Only the selected columns are read, so a listing of names never loads descriptions.
+    @Override
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> findPage(Collection<String> fields, ProductSort sort, boolean descending, ProductCursor after, int limit) {
+        List<String> columns = LISTING_FIELDS.stream()
+                .filter(field -> field.equals("id") || field.equals("version") || field.equals(sort.property()) || fields.contains(field))
+                .toList();
+        String column = "p." + sort.property();
+        String direction = descending ? "desc" : "asc";
+        String comparison = descending ? "<" : ">";
+        StringBuilder jpql = new StringBuilder("select ")
+                .append(String.join(", ", columns.stream().map(field -> "p." + field + " as " + field).toList()))
+                .append(" from Product p");
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        if (after != null) {
+            if (sort == ProductSort.ID) {
+                jpql.append(" where p.id ").append(comparison).append(" :id");
+            } else {
+                jpql.append(" where (").append(column).append(' ').append(comparison).append(" :value or (")
+                        .append(column).append(" = :value and p.id ").append(comparison).append(" :id))");
+                parameters.put("value", after.sortValue());
+            }
+            parameters.put("id", after.id());
+        }
+        jpql.append(" order by ");
+        if (sort != ProductSort.ID) {
+            jpql.append(column).append(' ').append(direction).append(", ");
+        }
+        jpql.append("p.id ").append(direction);
+        TypedQuery<Tuple> query = entityManager.createQuery(jpql.toString(), Tuple.class);
+        parameters.forEach(query::setParameter);
+        return query.setMaxResults(limit).getResultList().stream()
+                .map(ProductRepositoryCustomImpl::toMap)
+                .toList();
+    }
+
+    private static Map<String, Object> toMap(Tuple tuple) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (TupleElement<?> element : tuple.getElements()) {
+            row.put(element.getAlias(), tuple.get(element));
+        }
+        return row;
+    }
+}
@@ -0,0 +1,7 @@
+package com.jc.product_service.repository;
+
+import com.jc.product_service.model.StockOperation;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface StockOperationRepository extends JpaRepository<StockOperation, String> {
+}
@@ -0,0 +1,23 @@
+package com.jc.product_service.repository;
+
+import com.jc.product_service.model.ReservationStatus;
+import com.jc.product_service.model.StockReservation;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface StockReservationRepository extends JpaRepository<StockReservation, String> {
+
+    @Query("select r.id from StockReservation r where r.status = :status and r.expiresAt <= :now order by r.expiresAt")
+    List<String> findIdsByStatusExpiredBefore(ReservationStatus status, LocalDateTime now, Pageable pageable);
+
+    // Only one of two racing transitions (e.g. confirm against expiry) can match the expected status.
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("update StockReservation r set r.status = :to where r.id = :id and r.status = :from")
+    int transition(String id, ReservationStatus from, ReservationStatus to);
+
+}
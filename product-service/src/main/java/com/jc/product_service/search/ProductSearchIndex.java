@@ -0,0 +1,195 @@
+package com.jc.product_service.search;
+
+import com.jc.product_service.dto.ProductSearchHit;
+import com.jc.product_service.model.Product;
+import com.jc.product_service.repository.ProductRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// In-memory inverted index over product names and descriptions, so search never reaches the database. Tokens are
+// kept sorted, which makes a prefix query a range scan over the token map.
+//
+// Every product matches all query terms or is left out. A term scores the best of the product's tokens it matches:
+// the token's weight (name occurrences count three times a description occurrence) times its inverse document
+// frequency, halved when the token only starts with the term. Writes through ProductService keep this instance's
+// index current; the periodic rebuild picks up changes made through other instances. Writes that land while a rebuild
+// reads the table are logged and replayed onto the new index before it is swapped in, so none of them is lost.
+@Component
+public class ProductSearchIndex {
+
+    private static final double NAME_WEIGHT = 3.0;
+    private static final double DESCRIPTION_WEIGHT = 1.0;
+    private static final double PREFIX_FACTOR = 0.5;
+
+    private final ProductRepository productRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Timer queryTimer;
+    private Snapshot current = new Snapshot();
+    private List<Consumer<Snapshot>> writesDuringRebuild;
+
+    public ProductSearchIndex(ProductRepository productRepository, MeterRegistry meterRegistry) {
+        this.productRepository = productRepository;
+        this.queryTimer = Timer.builder("product.search.query").publishPercentileHistogram().register(meterRegistry);
+        Gauge.builder("product.search.index.documents", this, index -> index.read(() -> index.current.documents.size()))
+                .register(meterRegistry);
+        Gauge.builder("product.search.index.terms", this, index -> index.read(() -> index.current.postings.size()))
+                .register(meterRegistry);
+    }
+
+    // The new index is built off to the side and swapped in, so searches keep being answered during a rebuild. The
+    // scheduler runs on a thread pool (spring.task.scheduling.pool.size), so a long rebuild does not hold up the
+    // hot stock flush or reservation expiry.
+    @PostConstruct
+    @Scheduled(initialDelayString = "${product.search.rebuild-interval-ms:600000}",
+            fixedDelayString = "${product.search.rebuild-interval-ms:600000}")
+    public synchronized void rebuild() {
+        write(() -> writesDuringRebuild = new ArrayList<>());
+        Snapshot fresh = new Snapshot();
+        try {
+            productRepository.findAll().forEach(product -> fresh.put(Document.of(product)));
+        } catch (RuntimeException ex) {
+            write(() -> writesDuringRebuild = null);
+            throw ex;
+        }
+        write(() -> {
+            writesDuringRebuild.forEach(change -> change.accept(fresh));
+            writesDuringRebuild = null;
+            current = fresh;
+        });
+    }
+
+    public void put(Product product) {
+        Document document = Document.of(product);
+        apply(snapshot -> snapshot.put(document));
+    }
+
+    public void remove(Long productId) {
+        apply(snapshot -> snapshot.remove(productId));
+    }
+
+    public List<ProductSearchHit> search(String query, int limit) {
+        List<String> terms = tokenize(query).stream().distinct().toList();
+        if (terms.isEmpty()) {
+            throw new IllegalArgumentException("Search query must contain at least one letter or digit");
+        }
+        return queryTimer.record(() -> read(() -> rank(terms, limit)));
+    }
+
+    private List<ProductSearchHit> rank(List<String> terms, int limit) {
+        Map<Long, Double> scores = null;
+        for (String term : terms) {
+            Map<Long, Double> termScores = new HashMap<>();
+            for (Map.Entry<String, Map<Long, Double>> posting : current.postings.subMap(term, true, term + Character.MAX_VALUE, false).entrySet()) {
+                double idf = Math.log(1 + (double) current.documents.size() / posting.getValue().size());
+                double factor = posting.getKey().equals(term) ? 1.0 : PREFIX_FACTOR;
+                posting.getValue().forEach((id, weight) -> termScores.merge(id, weight * idf * factor, Math::max));
+            }
+            if (scores == null) {
+                scores = termScores;
+            } else {
+                scores.keySet().retainAll(termScores.keySet());
+                scores.replaceAll((id, score) -> score + termScores.get(id));
+            }
+            if (scores.isEmpty()) {
+                return List.of();
+            }
+        }
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Double>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .map(entry -> current.documents.get(entry.getKey()).hit(entry.getValue()))
+                .toList();
+    }
+
+    private void apply(Consumer<Snapshot> change) {
+        write(() -> {
+            change.accept(current);
+            if (writesDuringRebuild != null) {
+                writesDuringRebuild.add(change);
+            }
+        });
+    }
+
+    private void write(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private <T> T read(Supplier<T> action) {
+        lock.readLock().lock();
+        try {
+            return action.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        return List.of(text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")).stream()
+                .filter(token -> !token.isEmpty())
+                .toList();
+    }
+
+    private static final class Snapshot {
+
+        private final NavigableMap<String, Map<Long, Double>> postings = new TreeMap<>();
+        private final Map<Long, Document> documents = new HashMap<>();
+
+        void put(Document document) {
+            remove(document.id());
+            documents.put(document.id(), document);
+            document.weights().forEach((token, weight) -> postings.computeIfAbsent(token, t -> new HashMap<>()).put(document.id(), weight));
+        }
+
+        void remove(Long productId) {
+            Document previous = documents.remove(productId);
+            if (previous == null) {
+                return;
+            }
+            for (String token : previous.weights().keySet()) {
+                Map<Long, Double> ids = postings.get(token);
+                ids.remove(productId);
+                if (ids.isEmpty()) {
+                    postings.remove(token);
+                }
+            }
+        }
+    }
+
+    private record Document(Long id, String name, String description, Double price, Map<String, Double> weights) {
+
+        static Document of(Product product) {
+            Map<String, Double> weights = new HashMap<>();
+            tokenize(product.getName()).forEach(token -> weights.merge(token, NAME_WEIGHT, Double::sum));
+            tokenize(product.getDescription()).forEach(token -> weights.merge(token, DESCRIPTION_WEIGHT, Double::sum));
+            return new Document(product.getId(), product.getName(), product.getDescription(), product.getPrice(), weights);
+        }
+
+        ProductSearchHit hit(double score) {
+            return new ProductSearchHit(id, name, description, price, score);
+        }
+    }
+}
@@ -1,46 +1,261 @@
 package com.jc.product_service.service;
 
+import com.jc.product_service.dto.ProductCursor;
+import com.jc.product_service.dto.ProductPage;
+import com.jc.product_service.dto.ProductSearchHit;
+import com.jc.product_service.dto.ProductSort;
+import com.jc.product_service.dto.StockLine;
+import com.jc.product_service.dto.StockLineResult;
+import com.jc.product_service.exception.InsufficientStockException;
+import com.jc.product_service.exception.InvalidCursorException;
 import com.jc.product_service.exception.ProductNotFoundException;
+import com.jc.product_service.exception.StockBatchRejectedException;
+import com.jc.product_service.groupcommit.StockGroupCommitter;
+import com.jc.product_service.hotstock.HotStockCounters;
 import com.jc.product_service.model.Product;
+import com.jc.product_service.model.StockOperation;
 import com.jc.product_service.repository.ProductRepository;
+import com.jc.product_service.repository.ProductRepositoryCustom;
+import com.jc.product_service.repository.StockOperationRepository;
+import com.jc.product_service.search.ProductSearchIndex;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class ProductService {
 
     private final ProductRepository productRepository;
+    private final StockOperationRepository stockOperationRepository;
+    private final HotStockCounters hotStock;
+    private final StockGroupCommitter groupCommit;
+    private final ProductSearchIndex searchIndex;
+    private final TransactionTemplate transactionTemplate;
 
-    public ProductService(ProductRepository productRepository) {
+    public ProductService(ProductRepository productRepository, StockOperationRepository stockOperationRepository,
+                          HotStockCounters hotStock, StockGroupCommitter groupCommit, ProductSearchIndex searchIndex,
+                          PlatformTransactionManager transactionManager) {
         this.productRepository = productRepository;
+        this.stockOperationRepository = stockOperationRepository;
+        this.hotStock = hotStock;
+        this.groupCommit = groupCommit;
+        this.searchIndex = searchIndex;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     public Product createProduct(Product product) {
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        searchIndex.put(saved);
+        return saved;
+    }
+
+    public List<ProductSearchHit> searchProducts(String query, int limit) {
+        return searchIndex.search(query, limit);
     }
 
     public List<Product> getAllProducts() {
         return productRepository.findAll();
     }
 
+    // Fields that were not asked for are left out of the response; id, version and the sort column are still read to
+    // build the next cursor and the page version. A cursor only continues the sort order it was issued for.
+    public ProductPage getProducts(Collection<String> fields, ProductSort sort, boolean descending, String cursor, int limit) {
+        Set<String> requested = fields == null || fields.isEmpty() ? Set.copyOf(ProductRepositoryCustom.LISTING_FIELDS) : Set.copyOf(fields);
+        for (String field : requested) {
+            if (!ProductRepositoryCustom.LISTING_FIELDS.contains(field)) {
+                throw new IllegalArgumentException("Unknown field: " + field + ", expected any of " + ProductRepositoryCustom.LISTING_FIELDS);
+            }
+        }
+        ProductCursor after = cursor == null || cursor.isBlank() ? null : ProductCursor.decode(cursor);
+        if (after != null && (after.sort() != sort || after.descending() != descending)) {
+            throw new InvalidCursorException(cursor);
+        }
+        List<Map<String, Object>> rows = productRepository.findPage(requested, sort, descending, after, limit + 1);
+        String nextCursor = null;
+        if (rows.size() > limit) {
+            rows = rows.subList(0, limit);
+            Map<String, Object> last = rows.get(limit - 1);
+            nextCursor = new ProductCursor(sort, descending, (Long) last.get("id"), String.valueOf(last.get(sort.property()))).encode();
+        }
+        long version = nextCursor == null ? 0 : 1;
+        for (Map<String, Object> row : rows) {
+            Long id = (Long) row.get("id");
+            version = 31 * (31 * version + id) + (Long) row.get("version");
+            if (hotStock.handles(id)) {
+                long held = hotStock.available(id);
+                version = 31 * version + held;
+                row.computeIfPresent("stock", (field, stock) -> (int) ((Integer) stock + held));
+            }
+        }
+        List<Map<String, Object>> products = rows.stream().map(row -> {
+            Map<String, Object> product = new LinkedHashMap<>(row);
+            product.keySet().retainAll(requested);
+            return product;
+        }).toList();
+        return new ProductPage(products, nextCursor, rows.size() + "-" + Long.toHexString(version));
+    }
+
+    // The version alone, without loading the product; a hot product's stock also moves in the counters, so its tag
+    // includes the stock as well.
+    public String getProductETag(Long id) {
+        if (hotStock.handles(id)) {
+            return getProductETag(getProductById(id));
+        }
+        return String.valueOf(productRepository.findVersionById(id)
+                .orElseThrow(() -> new ProductNotFoundException("Product with ID: " + id + " not found")));
+    }
+
+    public String getProductETag(Product product) {
+        return hotStock.handles(product.getId()) ? product.getVersion() + "-" + product.getStock() : String.valueOf(product.getVersion());
+    }
+
+    // A hot product's stock is what the row and this instance's counters hold together.
     public Product getProductById(Long id) {
+        Product product = findProduct(id);
+        if (!hotStock.handles(id)) {
+            return product;
+        }
+        return Product.builder()
+                .id(product.getId())
+                .name(product.getName())
+                .description(product.getDescription())
+                .price(product.getPrice())
+                .stock((int) (product.getStock() + hotStock.available(id)))
+                .version(product.getVersion())
+                .build();
+    }
+
+    private Product findProduct(Long id) {
         return productRepository.findById(id)
                 .orElseThrow(() -> new ProductNotFoundException("Product with ID: " + id + " not found"));
     }
 
     public Product updateProduct(Long id, Product updated) {
-        Product existing = getProductById(id);
+        Product existing = findProduct(id);
         existing.setName(updated.getName());
         existing.setDescription(updated.getDescription());
         existing.setPrice(updated.getPrice());
         existing.setStock(updated.getStock());
-        return productRepository.save(existing);
+        Product saved = productRepository.save(existing);
+        searchIndex.put(saved);
+        if (hotStock.handles(id)) {
+            hotStock.discard(id);
+        }
+        return saved;
+    }
+
+    // A decrement carrying an operation id is applied at most once; replays of the same id are no-ops.
+    // Check and decrement are one conditional UPDATE (or one take from the hot stock counters), so concurrent decrements
+    // can neither oversell nor overwrite each other; the product is only looked up again to tell a missing product from
+    // one without enough stock. With group commit on, the caller waits for the product's batch writer instead and holds
+    // no transaction (or connection) while it waits; the wait is bounded by product.group-commit.timeout.
+    public void decrementStock(Long id, int quantity, String operationId) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        if (groupCommit.isEnabled() && !hotStock.handles(id)) {
+            if (!await(groupCommit.decrement(id, quantity, operationId))) {
+                throw new InsufficientStockException("Insufficient stock for product ID: " + id);
+            }
+            return;
+        }
+        transactionTemplate.executeWithoutResult(tx -> decrementNow(id, quantity, operationId));
+    }
+
+    private void decrementNow(Long id, int quantity, String operationId) {
+        if (operationId != null && stockOperationRepository.existsById(operationId)) {
+            return;
+        }
+        boolean taken = hotStock.handles(id) ? hotStock.take(id, quantity) : productRepository.decrementIfAvailable(id, quantity) == 1;
+        if (!taken) {
+            if (!productRepository.existsById(id)) {
+                throw new ProductNotFoundException("Product with ID: " + id + " not found");
+            }
+            throw new InsufficientStockException("Insufficient stock for product ID: " + id);
+        }
+        if (operationId != null) {
+            stockOperationRepository.save(new StockOperation(operationId, id, quantity, LocalDateTime.now()));
+        }
+    }
+
+    // All lines commit together or not at all. Quantities are summed per product and applied in product id order, so
+    // overlapping batches lock rows in the same order and cannot deadlock each other. A replayed operation id answers
+    // every line as applied without touching stock again.
+    @Transactional
+    public List<StockLineResult> decrementStockBatch(List<StockLine> lines, String operationId) {
+        if (operationId != null && stockOperationRepository.existsById(operationId)) {
+            return results(lines, productId -> StockLineResult.Status.APPLIED);
+        }
+        SortedMap<Long, Integer> quantityByProduct = lines.stream()
+                .collect(Collectors.groupingBy(StockLine::productId, TreeMap::new, Collectors.summingInt(StockLine::quantity)));
+        Map<Long, StockLineResult.Status> statuses = new HashMap<>();
+        SortedMap<Long, Integer> rowQuantities = new TreeMap<>();
+        quantityByProduct.forEach((productId, quantity) -> {
+            if (hotStock.handles(productId)) {
+                statuses.put(productId, hotStock.take(productId, quantity) ? StockLineResult.Status.APPLIED : rejection(productId));
+            } else {
+                rowQuantities.put(productId, quantity);
+            }
+        });
+        int[] counts = rowQuantities.isEmpty() ? new int[0] : productRepository.decrementAllIfAvailable(rowQuantities);
+        int i = 0;
+        for (Long productId : rowQuantities.keySet()) {
+            statuses.put(productId, counts[i++] > 0 ? StockLineResult.Status.APPLIED : rejection(productId));
+        }
+        if (statuses.containsValue(StockLineResult.Status.INSUFFICIENT_STOCK) || statuses.containsValue(StockLineResult.Status.PRODUCT_NOT_FOUND)) {
+            throw new StockBatchRejectedException(results(lines, productId -> statuses.get(productId) == StockLineResult.Status.APPLIED
+                    ? StockLineResult.Status.ROLLED_BACK : statuses.get(productId)));
+        }
+        if (operationId != null) {
+            int total = quantityByProduct.values().stream().mapToInt(Integer::intValue).sum();
+            stockOperationRepository.save(new StockOperation(operationId, null, total, LocalDateTime.now()));
+        }
+        return results(lines, statuses::get);
+    }
+
+    private static boolean await(CompletableFuture<Boolean> result) {
+        try {
+            return result.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    private StockLineResult.Status rejection(Long productId) {
+        return productRepository.existsById(productId) ? StockLineResult.Status.INSUFFICIENT_STOCK : StockLineResult.Status.PRODUCT_NOT_FOUND;
+    }
+
+    private static List<StockLineResult> results(List<StockLine> lines, Function<Long, StockLineResult.Status> status) {
+        return lines.stream()
+                .map(line -> new StockLineResult(line.productId(), line.quantity(), status.apply(line.productId())))
+                .toList();
     }
 
     public void deleteProduct(Long id) {
-        Product existing = getProductById(id);
+        Product existing = findProduct(id);
         productRepository.delete(existing);
+        searchIndex.remove(id);
+        if (hotStock.handles(id)) {
+            hotStock.discard(id);
+        }
     }
 
 
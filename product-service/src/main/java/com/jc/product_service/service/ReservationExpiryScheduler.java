@@ -0,0 +1,44 @@
+package com.jc.product_service.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Returns the stock of expired reservations. Candidates come from the (status, expiresAt) index oldest first, and each
+// one is released in its own short transaction, so a sweep never holds more than one reservation and one product row.
+@Component
+public class ReservationExpiryScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReservationExpiryScheduler.class);
+
+    private final StockReservationService reservationService;
+    private final int batchSize;
+
+    public ReservationExpiryScheduler(StockReservationService reservationService,
+                                      @Value("${product.reservation.expiry-batch-size:500}") int batchSize) {
+        this.reservationService = reservationService;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${product.reservation.expiry-interval-ms:5000}")
+    public int releaseExpired() {
+        int released = 0;
+        List<String> batch;
+        do {
+            batch = reservationService.findExpired(batchSize);
+            for (String id : batch) {
+                if (reservationService.expire(id)) {
+                    released++;
+                }
+            }
+        } while (batch.size() == batchSize);
+        if (released > 0) {
+            logger.info("Released {} expired stock reservations", released);
+        }
+        return released;
+    }
+}
@@ -0,0 +1,139 @@
+package com.jc.product_service.service;
+
+import com.jc.product_service.exception.InsufficientStockException;
+import com.jc.product_service.exception.ProductNotFoundException;
+import com.jc.product_service.exception.ReservationConflictException;
+import com.jc.product_service.exception.ReservationNotFoundException;
+import com.jc.product_service.hotstock.HotStockCounters;
+import com.jc.product_service.model.ReservationStatus;
+import com.jc.product_service.model.StockReservation;
+import com.jc.product_service.repository.ProductRepository;
+import com.jc.product_service.repository.StockReservationRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Stock moves out of the product row when it is reserved and back in when the reservation is released or expires;
+// confirming only marks the reservation as final. Every step is a conditional update on a single row, so concurrent
+// checkouts never oversell and never wait on anything wider than the rows they touch.
+@Service
+public class StockReservationService {
+
+    private final ProductRepository productRepository;
+    private final StockReservationRepository reservationRepository;
+    private final HotStockCounters hotStock;
+    private final Duration defaultTtl;
+    private final Duration maxTtl;
+
+    public StockReservationService(ProductRepository productRepository,
+                                   StockReservationRepository reservationRepository,
+                                   HotStockCounters hotStock,
+                                   @Value("${product.reservation.default-ttl:10m}") Duration defaultTtl,
+                                   @Value("${product.reservation.max-ttl:1h}") Duration maxTtl) {
+        this.productRepository = productRepository;
+        this.reservationRepository = reservationRepository;
+        this.hotStock = hotStock;
+        this.defaultTtl = defaultTtl;
+        this.maxTtl = maxTtl;
+    }
+
+    // A retried reservation with the same id returns the original one instead of taking stock twice.
+    @Transactional
+    public StockReservation reserve(Long productId, int quantity, String reservationId, Integer ttlSeconds) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        StockReservation existing = reservationRepository.findById(reservationId).orElse(null);
+        if (existing != null) {
+            if (!existing.getProductId().equals(productId) || existing.getQuantity() != quantity) {
+                throw new ReservationConflictException("Reservation " + reservationId + " was made for a different product or quantity");
+            }
+            return existing;
+        }
+        boolean taken = hotStock.handles(productId) ? hotStock.take(productId, quantity) : productRepository.decrementIfAvailable(productId, quantity) == 1;
+        if (!taken) {
+            if (!productRepository.existsById(productId)) {
+                throw new ProductNotFoundException("Product with ID: " + productId + " not found");
+            }
+            throw new InsufficientStockException("Insufficient stock for product ID: " + productId);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        return reservationRepository.save(StockReservation.builder()
+                .id(reservationId)
+                .productId(productId)
+                .quantity(quantity)
+                .status(ReservationStatus.RESERVED)
+                .expiresAt(now.plus(ttl(ttlSeconds)))
+                .createdAt(now)
+                .build());
+    }
+
+    // A reservation past its expiry that has not been swept yet still holds its stock, so it can still be confirmed.
+    @Transactional
+    public StockReservation confirm(String reservationId) {
+        if (reservationRepository.transition(reservationId, ReservationStatus.RESERVED, ReservationStatus.CONFIRMED) == 0) {
+            StockReservation reservation = getReservation(reservationId);
+            if (reservation.getStatus() != ReservationStatus.CONFIRMED) {
+                throw new ReservationConflictException("Reservation " + reservationId + " has already been released");
+            }
+            return reservation;
+        }
+        return getReservation(reservationId);
+    }
+
+    @Transactional
+    public StockReservation release(String reservationId) {
+        if (!releaseIfReserved(reservationId)) {
+            StockReservation reservation = getReservation(reservationId);
+            if (reservation.getStatus() != ReservationStatus.RELEASED) {
+                throw new ReservationConflictException("Reservation " + reservationId + " has already been confirmed");
+            }
+            return reservation;
+        }
+        return getReservation(reservationId);
+    }
+
+    public StockReservation getReservation(String reservationId) {
+        return reservationRepository.findById(reservationId)
+                .orElseThrow(() -> new ReservationNotFoundException("Reservation " + reservationId + " not found"));
+    }
+
+    public List<String> findExpired(int limit) {
+        return reservationRepository.findIdsByStatusExpiredBefore(ReservationStatus.RESERVED, LocalDateTime.now(), PageRequest.of(0, limit));
+    }
+
+    // Used by the expiry sweep; a reservation confirmed in the meantime is left alone.
+    @Transactional
+    public boolean expire(String reservationId) {
+        return releaseIfReserved(reservationId);
+    }
+
+    private boolean releaseIfReserved(String reservationId) {
+        if (reservationRepository.transition(reservationId, ReservationStatus.RESERVED, ReservationStatus.RELEASED) == 0) {
+            return false;
+        }
+        StockReservation reservation = getReservation(reservationId);
+        if (hotStock.handles(reservation.getProductId())) {
+            hotStock.giveBack(reservation.getProductId(), reservation.getQuantity());
+        } else {
+            productRepository.incrementStock(reservation.getProductId(), reservation.getQuantity());
+        }
+        return true;
+    }
+
+    private Duration ttl(Integer ttlSeconds) {
+        if (ttlSeconds == null) {
+            return defaultTtl;
+        }
+        if (ttlSeconds <= 0) {
+            throw new IllegalArgumentException("TTL must be positive");
+        }
+        Duration requested = Duration.ofSeconds(ttlSeconds);
+        return requested.compareTo(maxTtl) > 0 ? maxTtl : requested;
+    }
+}
@@ -1,22 +1,42 @@
 package com.jc.product_service.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jc.product_service.dto.ProductPage;
+import com.jc.product_service.dto.ProductSort;
+import com.jc.product_service.dto.StockLine;
+import com.jc.product_service.dto.StockLineResult;
+import com.jc.product_service.exception.GlobalExceptionHandler;
+import com.jc.product_service.exception.InsufficientStockException;
+import com.jc.product_service.exception.InvalidCursorException;
+import com.jc.product_service.exception.ReservationConflictException;
+import com.jc.product_service.exception.StockBatchRejectedException;
 import com.jc.product_service.model.Product;
+import com.jc.product_service.model.ReservationStatus;
+import com.jc.product_service.model.StockReservation;
 import com.jc.product_service.service.ProductService;
+import com.jc.product_service.service.StockReservationService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
-import java.util.Arrays;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -27,8 +47,8 @@ public class ProductControllerTest {
     @Mock
     private ProductService productService;
 
-    @InjectMocks
-    private ProductController productController;
+    @Mock
+    private StockReservationService reservationService;
 
     private ObjectMapper objectMapper;
     private Product product;
@@ -36,7 +56,9 @@ public class ProductControllerTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        mockMvc = MockMvcBuilders.standaloneSetup(productController).build();
+        mockMvc = MockMvcBuilders.standaloneSetup(new ProductController(productService, reservationService, 50, 200, 20, 100))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
         objectMapper = new ObjectMapper();
 
         product = Product.builder()
@@ -45,6 +67,7 @@ public class ProductControllerTest {
                 .description("High performance laptop")
                 .price(1200.0)
                 .stock(10)
+                .version(0L)
                 .build();
     }
 
@@ -60,17 +83,71 @@ public class ProductControllerTest {
     }
 
     @Test
-    void shouldGetAllProducts() throws Exception {
-        when(productService.getAllProducts()).thenReturn(Arrays.asList(product));
+    void shouldGetProductPageWithClampedLimit() throws Exception {
+        when(productService.getProducts(List.of("name", "price"), ProductSort.PRICE, true, null, 200))
+                .thenReturn(new ProductPage(List.of(Map.of("name", "Laptop", "price", 1200.0)), "next", "1-abc"));
 
-        mockMvc.perform(get("/products"))
+        mockMvc.perform(get("/products").param("sort", "price").param("direction", "desc")
+                        .param("fields", "name,price").param("limit", "10000"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].name").value("Laptop"));
+                .andExpect(jsonPath("$.products[0].name").value("Laptop"))
+                .andExpect(jsonPath("$.nextCursor").value("next"))
+                .andExpect(jsonPath("$.version").doesNotExist())
+                .andExpect(header().string("ETag", "\"1-abc\""));
+    }
+
+    @Test
+    void shouldReturn304ForUnchangedPage() throws Exception {
+        when(productService.getProducts(null, ProductSort.ID, false, null, 50))
+                .thenReturn(new ProductPage(List.of(Map.of("name", "Laptop")), null, "1-abc"));
+
+        mockMvc.perform(get("/products").header("If-None-Match", "\"1-abc\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void shouldRejectUnknownSort() throws Exception {
+        mockMvc.perform(get("/products").param("sort", "stock"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldReturn400ForInvalidCursor() throws Exception {
+        when(productService.getProducts(any(), any(), anyBoolean(), any(), anyInt())).thenThrow(new InvalidCursorException("bogus"));
+
+        mockMvc.perform(get("/products").param("cursor", "bogus"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldReturn304WithoutLoadingUnchangedProduct() throws Exception {
+        when(productService.getProductETag(1L)).thenReturn("3");
+
+        mockMvc.perform(get("/products/1").header("If-None-Match", "W/\"2\", \"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"3\""));
+
+        verify(productService, never()).getProductById(1L);
+    }
+
+    @Test
+    void shouldReturnChangedProductWithItsETag() throws Exception {
+        product.setVersion(4L);
+        when(productService.getProductETag(1L)).thenReturn("4");
+        when(productService.getProductById(1L)).thenReturn(product);
+        when(productService.getProductETag(product)).thenReturn("4");
+
+        mockMvc.perform(get("/products/1").header("If-None-Match", "\"3\""))
+                .andExpect(status().isOk())
+                .andExpect(header().stringValues("ETag", "\"4\""))
+                .andExpect(jsonPath("$.name").value("Laptop"));
     }
 
     @Test
     void shouldGetProductById() throws Exception {
         when(productService.getProductById(1L)).thenReturn(product);
+        when(productService.getProductETag(product)).thenReturn("0");
 
         mockMvc.perform(get("/products/1"))
                 .andExpect(status().isOk())
@@ -101,4 +178,64 @@ public class ProductControllerTest {
         mockMvc.perform(delete("/products/1"))
                 .andExpect(status().isNoContent());
     }
+
+    @Test
+    void shouldDecrementStockWithIdempotencyKey() throws Exception {
+        mockMvc.perform(post("/products/1/decrement-stock")
+                        .param("quantity", "2")
+                        .header("Idempotency-Key", "order-outbox-7"))
+                .andExpect(status().isOk());
+
+        verify(productService).decrementStock(1L, 2, "order-outbox-7");
+    }
+
+    @Test
+    void shouldReturn409WhenStockIsInsufficient() throws Exception {
+        doThrow(new InsufficientStockException("Insufficient stock for product ID: 1"))
+                .when(productService).decrementStock(1L, 20, null);
+
+        mockMvc.perform(post("/products/1/decrement-stock").param("quantity", "20"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("Insufficient stock for product ID: 1"));
+    }
+
+    @Test
+    void shouldReserveStockUnderIdempotencyKey() throws Exception {
+        when(reservationService.reserve(1L, 2, "order-r-1", 600)).thenReturn(
+                new StockReservation("order-r-1", 1L, 2, ReservationStatus.RESERVED, LocalDateTime.now().plusMinutes(10), LocalDateTime.now()));
+
+        mockMvc.perform(post("/products/1/reservations")
+                        .param("quantity", "2")
+                        .param("ttlSeconds", "600")
+                        .header("Idempotency-Key", "order-r-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value("order-r-1"))
+                .andExpect(jsonPath("$.status").value("RESERVED"));
+    }
+
+    @Test
+    void shouldReturn409WhenConfirmingReleasedReservation() throws Exception {
+        when(reservationService.confirm("order-r-1"))
+                .thenThrow(new ReservationConflictException("Reservation order-r-1 has already been released"));
+
+        mockMvc.perform(post("/products/reservations/order-r-1/confirm"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("Reservation order-r-1 has already been released"));
+    }
+
+    @Test
+    void shouldReturn409WithLineResultsWhenBatchIsRejected() throws Exception {
+        List<StockLine> lines = List.of(new StockLine(1L, 2), new StockLine(2L, 50));
+        when(productService.decrementStockBatch(lines, "cart-1")).thenThrow(new StockBatchRejectedException(List.of(
+                new StockLineResult(1L, 2, StockLineResult.Status.ROLLED_BACK),
+                new StockLineResult(2L, 50, StockLineResult.Status.INSUFFICIENT_STOCK))));
+
+        mockMvc.perform(post("/products/stock/decrement-batch")
+                        .header("Idempotency-Key", "cart-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"lines\":[{\"productId\":1,\"quantity\":2},{\"productId\":2,\"quantity\":50}]}"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.lines[0].status").value("ROLLED_BACK"))
+                .andExpect(jsonPath("$.lines[1].status").value("INSUFFICIENT_STOCK"));
+    }
 }
@@ -0,0 +1,137 @@
+package com.jc.product_service.groupcommit;
+
+import com.jc.product_service.exception.ProductNotFoundException;
+import com.jc.product_service.model.Product;
+import com.jc.product_service.repository.ProductRepository;
+import com.jc.product_service.repository.StockOperationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs without a test transaction: the batch writer commits on its own threads.
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StockGroupCommitterTest {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StockOperationRepository stockOperationRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private StockGroupCommitter committer;
+
+    private Long productId;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        committer = new StockGroupCommitter(productRepository, stockOperationRepository, transactionManager, meterRegistry,
+                true, Duration.ofMillis(20), Duration.ofSeconds(5), 100, 2);
+        productId = productRepository.save(Product.builder().name("Console").price(499.0).stock(25).build()).getId();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        committer.shutdown();
+        stockOperationRepository.deleteAllInBatch();
+        productRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void shouldGroupConcurrentDecrementsAndAnswerEachOne() {
+        List<CompletableFuture<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            results.add(committer.decrement(productId, 1, null));
+        }
+
+        long accepted = results.stream().filter(CompletableFuture::join).count();
+
+        assertEquals(25, accepted);
+        assertEquals(0, stock());
+        assertTrue(meterRegistry.get("product.stock.batch.size").summary().count() < 40);
+        assertEquals(40, meterRegistry.get("product.stock.batch.wait").timer().count());
+    }
+
+    @Test
+    void shouldLetSmallerRequestsThroughPastOneThatDoesNotFit() {
+        CompletableFuture<Boolean> large = committer.decrement(productId, 20, null);
+        CompletableFuture<Boolean> tooLarge = committer.decrement(productId, 10, null);
+        CompletableFuture<Boolean> small = committer.decrement(productId, 5, null);
+
+        assertTrue(large.join());
+        assertFalse(tooLarge.join());
+        assertTrue(small.join());
+        assertEquals(0, stock());
+    }
+
+    @Test
+    void shouldApplyAnOperationIdOnlyOnce() {
+        CompletableFuture<Boolean> first = committer.decrement(productId, 3, "op-1");
+        CompletableFuture<Boolean> duplicate = committer.decrement(productId, 3, "op-1");
+        assertTrue(first.join());
+        assertTrue(duplicate.join());
+
+        assertTrue(committer.decrement(productId, 3, "op-1").join());
+        assertEquals(22, stock());
+    }
+
+    @Test
+    void shouldFailEveryRequestForUnknownProduct() {
+        CompletableFuture<Boolean> result = committer.decrement(999_999L, 1, null);
+
+        CompletionException ex = assertThrows(CompletionException.class, result::join);
+        assertInstanceOf(ProductNotFoundException.class, ex.getCause());
+    }
+
+    @Test
+    void shouldDropRequestsThatTimedOutBeforeTheirBatch() throws InterruptedException {
+        StockGroupCommitter slow = new StockGroupCommitter(productRepository, stockOperationRepository, transactionManager,
+                meterRegistry, true, Duration.ofMillis(300), Duration.ofMillis(20), 100, 1);
+
+        CompletableFuture<Boolean> result = slow.decrement(productId, 5, null);
+
+        CompletionException ex = assertThrows(CompletionException.class, result::join);
+        assertInstanceOf(TimeoutException.class, ex.getCause());
+        slow.shutdown();
+        assertEquals(25, stock());
+    }
+
+    @Test
+    void shouldFailRequestsSubmittedAfterShutdown() throws InterruptedException {
+        committer.shutdown();
+
+        CompletableFuture<Boolean> result = committer.decrement(productId, 1, null);
+
+        assertTrue(result.isCompletedExceptionally());
+        CompletionException ex = assertThrows(CompletionException.class, result::join);
+        assertInstanceOf(IllegalStateException.class, ex.getCause());
+        assertEquals(25, stock());
+    }
+
+    private int stock() {
+        return productRepository.findById(productId).orElseThrow().getStock();
+    }
+}
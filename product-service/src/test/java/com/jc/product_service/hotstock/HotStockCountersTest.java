@@ -0,0 +1,150 @@
+package com.jc.product_service.hotstock;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class HotStockCountersTest {
+
+    private static final Long PRODUCT_ID = 1L;
+
+    // Stands in for the products row.
+    private final AtomicInteger row = new AtomicInteger();
+
+    private HotStockStore store;
+
+    private HotStockCounters counters;
+
+    @BeforeEach
+    void setUp() {
+        HotStockStore store = mock(HotStockStore.class);
+        when(store.grant(eq(PRODUCT_ID), anyInt(), anyInt())).thenAnswer(invocation -> {
+            int needed = invocation.getArgument(1);
+            int prefetch = invocation.getArgument(2);
+            int granted;
+            int current;
+            do {
+                current = row.get();
+                granted = Math.min(needed, current) + Math.clamp(Math.min(prefetch, (current - needed) / 2), 0, prefetch);
+            } while (!row.compareAndSet(current, current - granted));
+            return granted;
+        });
+        when(store.stock(PRODUCT_ID)).thenAnswer(invocation -> row.get());
+        doAnswer(invocation -> row.addAndGet(invocation.getArgument(1))).when(store).giveBack(eq(PRODUCT_ID), anyInt());
+        this.store = store;
+        counters = new HotStockCounters(store, true, Set.of(PRODUCT_ID), 8, 500);
+    }
+
+    @Test
+    void shouldSellExactlyTheRowStockUnderConcurrentTakes() throws Exception {
+        row.set(20_000);
+        AtomicInteger sold = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(16)) {
+            for (int i = 0; i < 16; i++) {
+                futures.add(executor.submit(() -> {
+                    while (counters.take(PRODUCT_ID, 1)) {
+                        sold.incrementAndGet();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+
+        assertEquals(20_000, sold.get());
+        assertEquals(0, row.get());
+        assertEquals(0, counters.available(PRODUCT_ID));
+    }
+
+    @Test
+    void shouldRefuseMoreThanRowAndCountersHoldTogether() {
+        row.set(10);
+
+        assertTrue(counters.take(PRODUCT_ID, 7));
+        assertFalse(counters.take(PRODUCT_ID, 4));
+        assertTrue(counters.take(PRODUCT_ID, 3));
+        assertEquals(0, row.get() + counters.available(PRODUCT_ID));
+    }
+
+    @Test
+    void shouldTopUpAheadOfDemandAndReturnSurplus() {
+        row.set(10_000);
+
+        counters.flush();
+        assertEquals(500, counters.available(PRODUCT_ID));
+        assertEquals(9_500, row.get());
+
+        counters.giveBack(PRODUCT_ID, 2_000);
+        counters.flush();
+        assertEquals(500, counters.available(PRODUCT_ID));
+        assertEquals(11_500, row.get());
+    }
+
+    @Test
+    void shouldHandBackStockOtherInstancesNeedWhenTheRowRunsOut() {
+        HotStockCounters otherInstance = new HotStockCounters(store, true, Set.of(PRODUCT_ID), 8, 500);
+        row.set(1_000);
+
+        counters.flush();
+        assertEquals(500, counters.available(PRODUCT_ID));
+        assertTrue(otherInstance.take(PRODUCT_ID, 500));
+        assertFalse(otherInstance.take(PRODUCT_ID, 200));
+
+        counters.flush();
+
+        assertTrue(otherInstance.take(PRODUCT_ID, 200));
+        assertEquals(500, row.get() + counters.available(PRODUCT_ID) + otherInstance.available(PRODUCT_ID) + 200);
+        counters.flush();
+        assertTrue(counters.available(PRODUCT_ID) <= row.get());
+    }
+
+    @Test
+    void shouldReturnTakenUnitsWhenTransactionRollsBack() {
+        row.set(100);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            assertTrue(counters.take(PRODUCT_ID, 10));
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(100, row.get() + counters.available(PRODUCT_ID));
+    }
+
+    @Test
+    void shouldHandStockBackToRowOnClose() {
+        row.set(1_000);
+        counters.take(PRODUCT_ID, 100);
+
+        counters.close();
+
+        assertEquals(900, row.get());
+        assertEquals(0, counters.available(PRODUCT_ID));
+        assertFalse(counters.handles(PRODUCT_ID));
+    }
+
+    @Test
+    void shouldHandleNothingWhenDisabled() {
+        HotStockCounters disabled = new HotStockCounters(mock(HotStockStore.class), false, Set.of(PRODUCT_ID), 8, 500);
+
+        assertFalse(disabled.handles(PRODUCT_ID));
+    }
+}
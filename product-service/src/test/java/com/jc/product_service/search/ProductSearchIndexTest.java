@@ -0,0 +1,93 @@
+package com.jc.product_service.search;
+
+import com.jc.product_service.dto.ProductSearchHit;
+import com.jc.product_service.model.Product;
+import com.jc.product_service.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ProductSearchIndexTest {
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        when(productRepository.findAll()).thenReturn(List.of(
+                product(1L, "Gaming Laptop", "Fast laptop with a mechanical keyboard"),
+                product(2L, "Mechanical Keyboard", "Tenkeyless, brown switches"),
+                product(3L, "Laptop Stand", "Aluminium stand"),
+                product(4L, "USB-C Cable", null)));
+        index = new ProductSearchIndex(productRepository, meterRegistry);
+        index.rebuild();
+    }
+
+    @Test
+    void shouldRankNameMatchesAboveDescriptionMatches() {
+        List<Long> ids = ids(index.search("keyboard", 10));
+
+        assertEquals(List.of(2L, 1L), ids);
+    }
+
+    @Test
+    void shouldMatchPrefixesButPreferWholeWords() {
+        assertEquals(List.of(2L, 1L), ids(index.search("mech", 10)));
+        assertEquals(List.of(4L), ids(index.search("usb c", 10)));
+
+        index.put(product(5L, "Lap", "Lap desk"));
+        assertEquals(5L, index.search("lap", 10).get(0).id());
+    }
+
+    @Test
+    void shouldRequireEveryTerm() {
+        assertEquals(List.of(1L), ids(index.search("LAPTOP keyboard", 10)));
+        assertTrue(index.search("laptop phone", 10).isEmpty());
+    }
+
+    @Test
+    void shouldReflectUpdatesAndDeletes() {
+        index.put(product(3L, "Monitor Arm", "Gas spring"));
+        index.remove(1L);
+
+        assertTrue(index.search("laptop", 10).isEmpty());
+        assertEquals(List.of(3L), ids(index.search("monitor", 10)));
+        assertEquals(3.0, meterRegistry.get("product.search.index.documents").gauge().value());
+    }
+
+    @Test
+    void shouldKeepWritesMadeWhileRebuilding() {
+        List<Product> snapshot = productRepository.findAll();
+        when(productRepository.findAll()).thenAnswer(invocation -> {
+            index.remove(1L);
+            index.put(product(5L, "Monitor Arm", "Gas spring"));
+            return snapshot;
+        });
+
+        index.rebuild();
+
+        assertEquals(List.of(3L), ids(index.search("laptop", 10)));
+        assertEquals(List.of(5L), ids(index.search("monitor", 10)));
+    }
+
+    @Test
+    void shouldLimitResultsAndRejectEmptyQueries() {
+        assertEquals(1, index.search("laptop", 1).size());
+        assertThrows(IllegalArgumentException.class, () -> index.search(" - ", 10));
+        assertEquals(1, meterRegistry.get("product.search.query").timer().count());
+    }
+
+    private static List<Long> ids(List<ProductSearchHit> hits) {
+        return hits.stream().map(ProductSearchHit::id).toList();
+    }
+
+    private static Product product(Long id, String name, String description) {
+        return Product.builder().id(id).name(name).description(description).price(10.0).stock(1).build();
+    }
+}
@@ -0,0 +1,101 @@
+package com.jc.product_service.service;
+
+import com.jc.product_service.dto.ProductPage;
+import com.jc.product_service.dto.ProductSort;
+import com.jc.product_service.exception.InvalidCursorException;
+import com.jc.product_service.groupcommit.StockGroupCommitter;
+import com.jc.product_service.hotstock.HotStockCounters;
+import com.jc.product_service.hotstock.HotStockStore;
+import com.jc.product_service.model.Product;
+import com.jc.product_service.repository.ProductRepository;
+import com.jc.product_service.search.ProductSearchIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({ProductService.class, HotStockCounters.class, HotStockStore.class, StockGroupCommitter.class, ProductSearchIndex.class, SimpleMeterRegistry.class})
+class ProductListingTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.saveAll(List.of(
+                Product.builder().name("Mouse").description("Wireless").price(20.0).stock(3).build(),
+                Product.builder().name("Laptop").description("15 inch").price(1200.0).stock(10).build(),
+                Product.builder().name("Keyboard").description("Mechanical").price(20.0).stock(5).build(),
+                Product.builder().name("Monitor").description("27 inch").price(300.0).stock(2).build(),
+                Product.builder().name("Cable").description("USB-C").price(5.0).stock(50).build()));
+    }
+
+    @Test
+    void shouldWalkEveryProductOnceAcrossPagesWithTiedPrices() {
+        List<Object> names = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            ProductPage page = productService.getProducts(List.of("name"), ProductSort.PRICE, true, cursor, 2);
+            page.products().forEach(product -> names.add(product.get("name")));
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(3, pages);
+        assertEquals(List.of("Laptop", "Monitor"), names.subList(0, 2));
+        assertEquals(Set.of("Mouse", "Keyboard"), Set.copyOf(names.subList(2, 4)));
+        assertEquals("Cable", names.get(4));
+    }
+
+    @Test
+    void shouldReturnOnlyRequestedFields() {
+        ProductPage page = productService.getProducts(List.of("name"), ProductSort.NAME, false, null, 10);
+
+        assertEquals(Map.of("name", "Cable"), page.products().get(0));
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    void shouldReturnEveryFieldByDefault() {
+        Map<String, Object> first = productService.getProducts(null, ProductSort.ID, false, null, 1).products().get(0);
+
+        assertEquals(List.of("id", "name", "description", "price", "stock", "version"), List.copyOf(first.keySet()));
+        assertEquals("Mouse", first.get("name"));
+    }
+
+    @Test
+    void shouldChangePageVersionWhenStockOfAListedProductChanges() {
+        ProductPage before = productService.getProducts(List.of("name"), ProductSort.ID, false, null, 2);
+        Long listed = (Long) productService.getProducts(null, ProductSort.ID, false, null, 1).products().get(0).get("id");
+
+        assertEquals(before.version(), productService.getProducts(List.of("name"), ProductSort.ID, false, null, 2).version());
+        productRepository.decrementIfAvailable(listed, 1);
+
+        assertNotEquals(before.version(), productService.getProducts(List.of("name"), ProductSort.ID, false, null, 2).version());
+    }
+
+    @Test
+    void shouldRejectCursorFromAnotherSortOrder() {
+        String cursor = productService.getProducts(null, ProductSort.NAME, false, null, 1).nextCursor();
+
+        assertThrows(InvalidCursorException.class, () -> productService.getProducts(null, ProductSort.PRICE, false, cursor, 1));
+        assertThrows(InvalidCursorException.class, () -> productService.getProducts(null, ProductSort.ID, false, "not-a-cursor", 1));
+        assertThrows(IllegalArgumentException.class, () -> productService.getProducts(List.of("secret"), ProductSort.ID, false, null, 1));
+    }
+}
@@ -1,13 +1,20 @@
 package com.jc.product_service.service;
 
+import com.jc.product_service.exception.InsufficientStockException;
 import com.jc.product_service.exception.ProductNotFoundException;
+import com.jc.product_service.groupcommit.StockGroupCommitter;
+import com.jc.product_service.hotstock.HotStockCounters;
 import com.jc.product_service.model.Product;
+import com.jc.product_service.model.StockOperation;
 import com.jc.product_service.repository.ProductRepository;
+import com.jc.product_service.repository.StockOperationRepository;
+import com.jc.product_service.search.ProductSearchIndex;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.util.Arrays;
 import java.util.List;
@@ -21,6 +28,21 @@ public class ProductServiceTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private StockOperationRepository stockOperationRepository;
+
+    @Mock
+    private HotStockCounters hotStock;
+
+    @Mock
+    private StockGroupCommitter groupCommit;
+
+    @Mock
+    private ProductSearchIndex searchIndex;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @InjectMocks
     private ProductService productService;
 
@@ -47,6 +69,7 @@ public class ProductServiceTest {
         assertNotNull(saved);
         assertEquals("Laptop", saved.getName());
         verify(productRepository, times(1)).save(product);
+        verify(searchIndex).put(product);
     }
 
     @Test
@@ -70,6 +93,20 @@ public class ProductServiceTest {
         verify(productRepository, times(1)).findById(1L);
     }
 
+    @Test
+    void shouldCountStockHeldInHotCountersOnReads() {
+        product.setVersion(7L);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(hotStock.handles(1L)).thenReturn(true);
+        when(hotStock.available(1L)).thenReturn(5L);
+
+        Product found = productService.getProductById(1L);
+
+        assertEquals(15, found.getStock());
+        assertEquals(10, product.getStock());
+        assertEquals("7-15", productService.getProductETag(1L));
+    }
+
     @Test
     void shouldThrowWhenProductNotFound() {
         when(productRepository.findById(1L)).thenReturn(Optional.empty());
@@ -105,6 +142,45 @@ public class ProductServiceTest {
         productService.deleteProduct(1L);
 
         verify(productRepository, times(1)).delete(product);
+        verify(searchIndex).remove(1L);
+    }
+
+    @Test
+    void shouldDecrementStockAndRecordOperation() {
+        when(productRepository.decrementIfAvailable(1L, 4)).thenReturn(1);
+
+        productService.decrementStock(1L, 4, "order-outbox-1");
+
+        verify(productRepository, times(1)).decrementIfAvailable(1L, 4);
+        verify(productRepository, never()).findById(any());
+        verify(productRepository, never()).save(any(Product.class));
+        verify(stockOperationRepository, times(1)).save(any(StockOperation.class));
+    }
+
+    @Test
+    void shouldIgnoreReplayedStockOperation() {
+        when(stockOperationRepository.existsById("order-outbox-1")).thenReturn(true);
+
+        productService.decrementStock(1L, 4, "order-outbox-1");
+
+        verify(productRepository, never()).decrementIfAvailable(any(), anyInt());
+    }
+
+    @Test
+    void shouldRejectDecrementBeyondAvailableStock() {
+        when(productRepository.decrementIfAvailable(1L, 11)).thenReturn(0);
+        when(productRepository.existsById(1L)).thenReturn(true);
+
+        assertThrows(InsufficientStockException.class, () -> productService.decrementStock(1L, 11, null));
+        verify(stockOperationRepository, never()).save(any(StockOperation.class));
+    }
+
+    @Test
+    void shouldRejectDecrementOfUnknownProduct() {
+        when(productRepository.decrementIfAvailable(9L, 1)).thenReturn(0);
+        when(productRepository.existsById(9L)).thenReturn(false);
+
+        assertThrows(ProductNotFoundException.class, () -> productService.decrementStock(9L, 1, null));
     }
 
 }
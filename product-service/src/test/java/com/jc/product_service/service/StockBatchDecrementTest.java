@@ -0,0 +1,96 @@
+package com.jc.product_service.service;
+
+import com.jc.product_service.dto.StockLine;
+import com.jc.product_service.dto.StockLineResult;
+import com.jc.product_service.exception.StockBatchRejectedException;
+import com.jc.product_service.groupcommit.StockGroupCommitter;
+import com.jc.product_service.hotstock.HotStockCounters;
+import com.jc.product_service.hotstock.HotStockStore;
+import com.jc.product_service.model.Product;
+import com.jc.product_service.repository.ProductRepository;
+import com.jc.product_service.repository.StockOperationRepository;
+import com.jc.product_service.search.ProductSearchIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs without a test transaction so a rejected batch is really rolled back before stock is checked.
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({ProductService.class, HotStockCounters.class, HotStockStore.class, StockGroupCommitter.class, ProductSearchIndex.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StockBatchDecrementTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StockOperationRepository stockOperationRepository;
+
+    private Long laptop;
+    private Long mouse;
+
+    @BeforeEach
+    void setUp() {
+        laptop = productRepository.save(Product.builder().name("Laptop").price(1200.0).stock(10).build()).getId();
+        mouse = productRepository.save(Product.builder().name("Mouse").price(20.0).stock(3).build()).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        stockOperationRepository.deleteAllInBatch();
+        productRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void shouldApplyEveryLineAndSumRepeatedProducts() {
+        List<StockLineResult> results = productService.decrementStockBatch(
+                List.of(new StockLine(mouse, 1), new StockLine(laptop, 4), new StockLine(mouse, 2)), null);
+
+        assertEquals(List.of(mouse, laptop, mouse), results.stream().map(StockLineResult::productId).toList());
+        assertTrue(results.stream().allMatch(result -> result.status() == StockLineResult.Status.APPLIED));
+        assertEquals(6, stock(laptop));
+        assertEquals(0, stock(mouse));
+    }
+
+    @Test
+    void shouldApplyNothingWhenOneLineIsShort() {
+        StockBatchRejectedException ex = assertThrows(StockBatchRejectedException.class, () -> productService.decrementStockBatch(
+                List.of(new StockLine(laptop, 4), new StockLine(mouse, 5), new StockLine(999_999L, 1)), null));
+
+        assertEquals(List.of(StockLineResult.Status.ROLLED_BACK, StockLineResult.Status.INSUFFICIENT_STOCK, StockLineResult.Status.PRODUCT_NOT_FOUND),
+                ex.getLines().stream().map(StockLineResult::status).toList());
+        assertEquals(10, stock(laptop));
+        assertEquals(3, stock(mouse));
+    }
+
+    @Test
+    void shouldApplyReplayedBatchOnlyOnce() {
+        List<StockLine> lines = List.of(new StockLine(laptop, 2), new StockLine(mouse, 1));
+
+        productService.decrementStockBatch(lines, "cart-1");
+        List<StockLineResult> replayed = productService.decrementStockBatch(lines, "cart-1");
+
+        assertTrue(replayed.stream().allMatch(result -> result.status() == StockLineResult.Status.APPLIED));
+        assertEquals(8, stock(laptop));
+        assertEquals(2, stock(mouse));
+    }
+
+    private int stock(Long productId) {
+        return productRepository.findById(productId).orElseThrow().getStock();
+    }
+}
@@ -0,0 +1,156 @@
+package com.jc.product_service.service;
+
+import com.jc.product_service.exception.InsufficientStockException;
+import com.jc.product_service.exception.ReservationConflictException;
+import com.jc.product_service.hotstock.HotStockCounters;
+import com.jc.product_service.hotstock.HotStockStore;
+import com.jc.product_service.model.Product;
+import com.jc.product_service.model.ReservationStatus;
+import com.jc.product_service.model.StockReservation;
+import com.jc.product_service.repository.ProductRepository;
+import com.jc.product_service.repository.StockReservationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs without a test transaction so each call commits on its own, as it does behind the controller.
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({StockReservationService.class, ReservationExpiryScheduler.class, HotStockCounters.class, HotStockStore.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StockReservationServiceTest {
+
+    @Autowired
+    private StockReservationService reservationService;
+
+    @Autowired
+    private ReservationExpiryScheduler expiryScheduler;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StockReservationRepository reservationRepository;
+
+    private Long productId;
+
+    @BeforeEach
+    void setUp() {
+        productId = productRepository.save(Product.builder().name("Laptop").price(1200.0).stock(10).build()).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        reservationRepository.deleteAllInBatch();
+        productRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void shouldTakeStockOnceForARetriedReservation() {
+        StockReservation first = reservationService.reserve(productId, 3, "r-1", 60);
+        StockReservation retried = reservationService.reserve(productId, 3, "r-1", 60);
+
+        assertEquals(ReservationStatus.RESERVED, first.getStatus());
+        assertEquals(reservationService.getReservation("r-1").getExpiresAt(), retried.getExpiresAt());
+        assertEquals(7, stock());
+    }
+
+    @Test
+    void shouldRejectReservationBeyondAvailableStock() {
+        reservationService.reserve(productId, 8, "r-1", 60);
+
+        assertThrows(InsufficientStockException.class, () -> reservationService.reserve(productId, 3, "r-2", 60));
+        assertEquals(2, stock());
+        assertFalse(reservationRepository.existsById("r-2"));
+    }
+
+    @Test
+    void shouldNeverOversellUnderConcurrentReservations() throws Exception {
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 25; i++) {
+                String id = "r-" + i;
+                futures.add(executor.submit(() -> {
+                    try {
+                        reservationService.reserve(productId, 1, id, 60);
+                    } catch (InsufficientStockException ex) {
+                        rejected.incrementAndGet();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+
+        assertEquals(0, stock());
+        assertEquals(15, rejected.get());
+        assertEquals(10, reservationRepository.count());
+    }
+
+    @Test
+    void shouldReturnStockOnReleaseAndRefuseToConfirmAfterwards() {
+        reservationService.reserve(productId, 4, "r-1", 60);
+
+        reservationService.release("r-1");
+        reservationService.release("r-1");
+
+        assertEquals(10, stock());
+        assertThrows(ReservationConflictException.class, () -> reservationService.confirm("r-1"));
+    }
+
+    @Test
+    void shouldKeepStockOfConfirmedReservationAndRefuseToReleaseIt() {
+        reservationService.reserve(productId, 4, "r-1", 60);
+
+        assertEquals(ReservationStatus.CONFIRMED, reservationService.confirm("r-1").getStatus());
+        assertEquals(ReservationStatus.CONFIRMED, reservationService.confirm("r-1").getStatus());
+
+        assertThrows(ReservationConflictException.class, () -> reservationService.release("r-1"));
+        assertEquals(6, stock());
+    }
+
+    @Test
+    void shouldReleaseOnlyExpiredUnconfirmedReservations() {
+        reservationService.reserve(productId, 2, "expired", 60);
+        reservationService.reserve(productId, 3, "expired-but-confirmed", 60);
+        reservationService.reserve(productId, 1, "live", 60);
+        reservationService.confirm("expired-but-confirmed");
+        expire("expired");
+        expire("expired-but-confirmed");
+
+        assertEquals(1, expiryScheduler.releaseExpired());
+
+        assertEquals(6, stock());
+        assertEquals(ReservationStatus.RELEASED, reservationService.getReservation("expired").getStatus());
+        assertEquals(ReservationStatus.CONFIRMED, reservationService.getReservation("expired-but-confirmed").getStatus());
+        assertEquals(ReservationStatus.RESERVED, reservationService.getReservation("live").getStatus());
+    }
+
+    private void expire(String reservationId) {
+        StockReservation reservation = reservationService.getReservation(reservationId);
+        reservation.setExpiresAt(LocalDateTime.now().minusSeconds(1));
+        reservationRepository.save(reservation);
+    }
+
+    private int stock() {
+        return productRepository.findById(productId).orElseThrow().getStock();
+    }
+}
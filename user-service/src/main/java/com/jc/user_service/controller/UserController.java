@@ -4,8 +4,10 @@ import com.jc.user_service.dto.UserRequest;
 import com.jc.user_service.model.User;
 import com.jc.user_service.service.UserService;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Optional;
@@ -29,9 +31,14 @@ public class UserController {
         return ResponseEntity.ok(userService.createUser(request));
     }
 
+    // A conditional GET first checks the version alone and answers 304 without loading the user.
     @GetMapping("/{id}")
-    public ResponseEntity<User> getUserById(@PathVariable Long id) {
-        return ResponseEntity.ok(userService.getUserById(id));
+    public ResponseEntity<User> getUserById(@PathVariable Long id, WebRequest request) {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null && request.checkNotModified(String.valueOf(userService.getUserVersion(id)))) {
+            return null;
+        }
+        User user = userService.getUserById(id);
+        return request.checkNotModified(String.valueOf(user.getVersion())) ? null : ResponseEntity.ok(user);
     }
 
     @GetMapping("/email/{email}")
@@ -25,4 +25,9 @@ public class User {
     @Column(nullable = false)
     private String password;
 
+    // Bumped by Hibernate on every update; it is the user's ETag. The default fills existing rows.
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
 }
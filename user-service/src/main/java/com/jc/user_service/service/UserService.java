@@ -28,6 +28,12 @@ public class UserService {
                 .orElseThrow(() -> new UserNotFoundException(id));
     }
 
+    public long getUserVersion(Long id) {
+        return userRepository
+                .findVersionById(id)
+                .orElseThrow(() -> new UserNotFoundException(id));
+    }
+
     public Optional<User> getUserByEmail(String email) {
         return userRepository.findByEmail(email);
     }
@@ -18,6 +18,7 @@ import org.springframework.test.web.servlet.MockMvc;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -52,7 +53,7 @@ class UserControllerTest {
     @Test
     void shouldCreateUserSuccessfully_whenValidData() throws Exception {
         UserRequest request = new UserRequest("Alice", "alice@example.com", "secret123");
-        User user = new User(1L, "Alice", "alice@example.com", "secret123");
+        User user = new User(1L, "Alice", "alice@example.com", "secret123", 0L);
 
         Mockito.when(userService.createUser(any(UserRequest.class))).thenReturn(user);
 
@@ -75,11 +76,33 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.error").value("User with ID: 99 not found"));
     }
 
+    @Test
+    void shouldReturnUserWithETag_whenUserExists() throws Exception {
+        User user = new User(1L, "Alice", "alice@example.com", "secret123", 2L);
+        Mockito.when(userService.getUserById(1L)).thenReturn(user);
+
+        mockMvc.perform(get("/users/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"2\""))
+                .andExpect(jsonPath("$.name").value("Alice"));
+    }
+
+    @Test
+    void shouldReturnNotModifiedWithoutLoadingUser_whenETagMatches() throws Exception {
+        Mockito.when(userService.getUserVersion(1L)).thenReturn(2L);
+
+        mockMvc.perform(get("/users/1").header("If-None-Match", "\"2\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"2\""));
+
+        Mockito.verify(userService, Mockito.never()).getUserById(1L);
+    }
+
     // ---------------- UPDATE ----------------
     @Test
     void shouldUpdateUserSuccessfully_whenValidData() throws Exception {
         UserRequest request = new UserRequest("Bob", "bob@example.com", "mypassword");
-        User updatedUser = new User(1L, "Bob", "bob@example.com", "mypassword");
+        User updatedUser = new User(1L, "Bob", "bob@example.com", "mypassword", 0L);
 
         Mockito.when(userService.updateUser(eq(1L), any(UserRequest.class))).thenReturn(updatedUser);
 
@@ -35,7 +35,7 @@ public class UserServiceTest {
     @BeforeEach
     void setUp() {
         request = new UserRequest("Alice", "alice@example.com", "secret123");
-        user = new User(1L, "Alice", "alice@example.com", "secret123");
+        user = new User(1L, "Alice", "alice@example.com", "secret123", 0L);
     }
 
 
@@ -84,7 +84,7 @@ public class UserServiceTest {
     @Test
     void shouldUpdateUser() {
         UserRequest updateRequest = new UserRequest("Bob", "bob@example.com", "newpass");
-        User updatedUser = new User(1L, "Bob", "bob@example.com", "newpass");
+        User updatedUser = new User(1L, "Bob", "bob@example.com", "newpass", 0L);
 
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
         when(userRepository.save(any(User.class))).thenReturn(updatedUser);